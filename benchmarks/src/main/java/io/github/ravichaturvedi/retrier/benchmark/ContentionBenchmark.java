@@ -0,0 +1,71 @@
+/*
+ * Copyright 2017 The Retrier AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.retrier.benchmark;
+
+
+import io.github.ravichaturvedi.retrier.Retrier;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import static io.github.ravichaturvedi.retrier.Retriers.*;
+
+/**
+ * {@link ContentionBenchmark} measures a single {@link Retrier} shared by multiple threads.
+ * <p>
+ * Thread count can be changed using the `-t` option.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class ContentionBenchmark {
+
+    private final Retrier retrier = create(withRetryCount(3));
+
+    @State(Scope.Thread)
+    public static class Attempts {
+
+        // Pre-allocated so the benchmark measures the retrier and not the exception construction.
+        private final IllegalStateException failure = new IllegalStateException("failure");
+
+        private int attempts;
+
+        final Callable<String> success = () -> "success";
+
+        final Callable<String> failingOnce = () -> {
+            if (++attempts == 1) {
+                throw failure;
+            }
+            return "success";
+        };
+    }
+
+    @Benchmark
+    public String sharedSuccess(Attempts state) throws Exception {
+        return retrier.retry(state.success);
+    }
+
+    @Benchmark
+    public String sharedRecovery(Attempts state) throws Exception {
+        state.attempts = 0;
+        return retrier.retry(state.failingOnce);
+    }
+}
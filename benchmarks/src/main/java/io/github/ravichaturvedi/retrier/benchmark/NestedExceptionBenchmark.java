@@ -0,0 +1,75 @@
+/*
+ * Copyright 2017 The Retrier AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.retrier.benchmark;
+
+
+import io.github.ravichaturvedi.retrier.Handler;
+import io.github.ravichaturvedi.retrier.Retrier;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import static io.github.ravichaturvedi.retrier.Retriers.*;
+import static io.github.ravichaturvedi.retrier.Retry.onNested;
+
+/**
+ * {@link NestedExceptionBenchmark} measures the matching of `Retry.onNested` handlers against deep cause chains.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class NestedExceptionBenchmark {
+
+    // Depth of the cause chain wrapping the retryable exception.
+    @Param({"1", "8", "32"})
+    public int depth;
+
+    private final Retrier retrier = create(withRetryCount(2));
+
+    private final Handler handler = onNested(IllegalArgumentException.class);
+
+    private Callable<String> failingOnce;
+
+    // Number of attempts made in the current invocation.
+    private int attempts;
+
+    @Setup
+    public void setup() {
+        Exception chain = new IllegalArgumentException("root");
+        for (int i = 0; i < depth; i++) {
+            chain = new RuntimeException(chain);
+        }
+
+        // Pre-allocated so the benchmark measures the matching and not the exception construction.
+        Exception failure = chain;
+        failingOnce = () -> {
+            if (++attempts == 1) {
+                throw failure;
+            }
+            return "success";
+        };
+    }
+
+    @Benchmark
+    public String nestedRecovery() throws Exception {
+        attempts = 0;
+        return retrier.retry(handler, failingOnce);
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2017 The Retrier AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.retrier.benchmark;
+
+
+import io.github.ravichaturvedi.retrier.Retrier;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import static io.github.ravichaturvedi.retrier.Retriers.*;
+
+/**
+ * {@link RecoveryBenchmark} measures the overhead of the {@link Retrier} when recovering after N failures with zero backoff.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RecoveryBenchmark {
+
+    // Number of failures before the successful attempt.
+    @Param({"1", "3", "10"})
+    public int failures;
+
+    private Retrier retrier;
+    private Retrier tracedRetrier;
+
+    // Pre-allocated so the benchmark measures the retrier and not the exception construction.
+    private final IllegalStateException failure = new IllegalStateException("failure");
+
+    private Callable<String> failing;
+
+    // Number of attempts made in the current invocation.
+    private int attempts;
+
+    @Setup
+    public void setup(Blackhole blackhole) {
+        retrier = create(withRetryCount(failures + 1));
+        tracedRetrier = create(withRetryCount(failures + 1), withTrace(blackhole::consume));
+        failing = () -> {
+            if (++attempts <= failures) {
+                throw failure;
+            }
+            return "success";
+        };
+    }
+
+    @Benchmark
+    public String recovery() throws Exception {
+        attempts = 0;
+        return retrier.retry(failing);
+    }
+
+    @Benchmark
+    public String tracedRecovery() throws Exception {
+        attempts = 0;
+        return tracedRetrier.retry(failing);
+    }
+}
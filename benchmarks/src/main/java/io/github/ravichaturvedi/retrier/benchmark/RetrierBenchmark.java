@@ -0,0 +1,70 @@
+/*
+ * Copyright 2017 The Retrier AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.retrier.benchmark;
+
+
+import io.github.ravichaturvedi.retrier.Retrier;
+import io.github.ravichaturvedi.retrier.Retry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import static io.github.ravichaturvedi.retrier.Retriers.*;
+
+/**
+ * {@link RetrierBenchmark} measures the overhead of the {@link Retrier} on first attempt success, with and without tracing.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RetrierBenchmark {
+
+    private Retrier retrier;
+    private Retrier tracedRetrier;
+
+    private final Callable<String> success = () -> "success";
+
+    @Setup
+    public void setup(Blackhole blackhole) {
+        retrier = create(withRetryCount(3));
+        tracedRetrier = create(withRetryCount(3), withTrace(blackhole::consume));
+    }
+
+    @Benchmark
+    public String baseline() throws Exception {
+        return success.call();
+    }
+
+    @Benchmark
+    public String defaultRetrySuccess() throws Exception {
+        return Retry.retry(success);
+    }
+
+    @Benchmark
+    public String customRetrySuccess() throws Exception {
+        return retrier.retry(success);
+    }
+
+    @Benchmark
+    public String tracedRetrySuccess() throws Exception {
+        return tracedRetrier.retry(success);
+    }
+}
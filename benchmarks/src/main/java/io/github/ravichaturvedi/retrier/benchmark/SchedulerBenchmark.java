@@ -0,0 +1,96 @@
+/*
+ * Copyright 2017 The Retrier AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.retrier.benchmark;
+
+
+import io.github.ravichaturvedi.retrier.timer.HashedWheelTimer;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link SchedulerBenchmark} compares the {@link HashedWheelTimer} with the {@link ScheduledThreadPoolExecutor}
+ * while 1M timers are pending, as when that many async retries are waiting for their backoff delay.
+ * <p>
+ * `scheduleAndCancel` is the attempt timeout which is mostly cancelled, `expire` the short backoff delays which all fire.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class SchedulerBenchmark {
+
+    // Number of timers pending during the benchmark.
+    private static final int PENDING_TIMERS = 1_000_000;
+
+    // Number of short timers scheduled per expire invocation.
+    private static final int EXPIRING_TIMERS = 10_000;
+
+    @Param({"wheel", "stpe"})
+    public String scheduler;
+
+    private ScheduledExecutorService executor;
+
+    @Setup
+    public void setup() {
+        if ("wheel".equals(scheduler)) {
+            executor = new HashedWheelTimer(Duration.ofMillis(10), 512);
+        } else {
+            ScheduledThreadPoolExecutor stpe = new ScheduledThreadPoolExecutor(1);
+            stpe.setRemoveOnCancelPolicy(true);
+            executor = stpe;
+        }
+
+        // Spread over the minutes, so they stay pending for the whole benchmark.
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < PENDING_TIMERS; i++) {
+            executor.schedule(() -> { }, random.nextLong(60_000, 600_000), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public boolean scheduleAndCancel() {
+        ScheduledFuture<?> future = executor.schedule(() -> { }, ThreadLocalRandom.current().nextLong(10, 1000), TimeUnit.MILLISECONDS);
+        return future.cancel(false);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 3, batchSize = 1)
+    @Measurement(iterations = 10, batchSize = 1)
+    public void expire() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(EXPIRING_TIMERS);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < EXPIRING_TIMERS; i++) {
+            executor.schedule(latch::countDown, random.nextLong(1, 100), TimeUnit.MILLISECONDS);
+        }
+        latch.await();
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2017 The Retrier AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.retrier;
+
+
+import io.github.ravichaturvedi.retrier.backoff.AdaptiveBackoff;
+import io.github.ravichaturvedi.retrier.backoff.DecorrelatedJitterBackoff;
+import io.github.ravichaturvedi.retrier.backoff.EqualJitterBackoff;
+import io.github.ravichaturvedi.retrier.backoff.ExponentialBackoff;
+import io.github.ravichaturvedi.retrier.backoff.FixedBackoff;
+import io.github.ravichaturvedi.retrier.backoff.FullJitterBackoff;
+import io.github.ravichaturvedi.retrier.backoff.LinearBackoff;
+
+import java.time.Duration;
+
+/**
+ * {@link BackoffStrategy} defines the semantics of computing the delay before the next retry.
+ * <p>
+ * Strategies are shared by all the retry calls of a {@link Retrier}, so they should be stateless (or thread-safe like
+ * {@link AdaptiveBackoff}); the delay of the previous retry is provided for the strategies depending on it.
+ */
+@FunctionalInterface
+public interface BackoffStrategy {
+
+    /**
+     * Returns the delay in milliseconds before retrying the failed attempt.
+     * @param attempt number of the failed attempt, starting with 1
+     * @param previousDelayInMillisec delay returned for the previous attempt, 0 for the first one
+     * @return
+     */
+    long delay(int attempt, long previousDelayInMillisec);
+
+    /**
+     * Returns the {@link BackoffStrategy} waiting the same delay before every retry.
+     * @param delay
+     * @return
+     */
+    static BackoffStrategy fixed(Duration delay) {
+        return new FixedBackoff(delay.toMillis());
+    }
+
+    /**
+     * Returns the {@link BackoffStrategy} increasing the delay by the provided increment after every retry, up to the max delay.
+     * @param initialDelay
+     * @param increment
+     * @param maxDelay
+     * @return
+     */
+    static BackoffStrategy linear(Duration initialDelay, Duration increment, Duration maxDelay) {
+        return new LinearBackoff(initialDelay.toMillis(), increment.toMillis(), maxDelay.toMillis());
+    }
+
+    /**
+     * Returns the {@link BackoffStrategy} doubling the delay after every retry, up to the max delay.
+     * @param initialDelay
+     * @param maxDelay
+     * @return
+     */
+    static BackoffStrategy exponential(Duration initialDelay, Duration maxDelay) {
+        return new ExponentialBackoff(initialDelay.toMillis(), maxDelay.toMillis());
+    }
+
+    /**
+     * Returns the {@link BackoffStrategy} waiting a random delay between 0 and the exponential delay.
+     * @param initialDelay
+     * @param maxDelay
+     * @return
+     */
+    static BackoffStrategy fullJitter(Duration initialDelay, Duration maxDelay) {
+        return new FullJitterBackoff(initialDelay.toMillis(), maxDelay.toMillis());
+    }
+
+    /**
+     * Returns the {@link BackoffStrategy} waiting half of the exponential delay plus a random delay up to the other half.
+     * @param initialDelay
+     * @param maxDelay
+     * @return
+     */
+    static BackoffStrategy equalJitter(Duration initialDelay, Duration maxDelay) {
+        return new EqualJitterBackoff(initialDelay.toMillis(), maxDelay.toMillis());
+    }
+
+    /**
+     * Returns the {@link BackoffStrategy} waiting a random delay between the initial delay and thrice the previous delay, up to the max delay.
+     * @param initialDelay
+     * @param maxDelay
+     * @return
+     */
+    static BackoffStrategy decorrelatedJitter(Duration initialDelay, Duration maxDelay) {
+        return new DecorrelatedJitterBackoff(initialDelay.toMillis(), maxDelay.toMillis());
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2017 The Retrier AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.retrier;
+
+
+/**
+ * {@link BatchResult} is the outcome of a single item of {@link Retrier#retryAll}: either the result of its successful attempt,
+ * or the exception of its last failed attempt.
+ */
+public final class BatchResult<T> {
+
+    private final T result;
+    private final Exception exception;
+
+    // Number of attempts made for the item.
+    private final int attempts;
+
+    private BatchResult(T result, Exception exception, int attempts) {
+        this.result = result;
+        this.exception = exception;
+        this.attempts = attempts;
+    }
+
+    static <T> BatchResult<T> success(T result, int attempts) {
+        return new BatchResult<>(result, null, attempts);
+    }
+
+    static <T> BatchResult<T> failure(Exception exception, int attempts) {
+        return new BatchResult<>(null, exception, attempts);
+    }
+
+    /**
+     * Returns whether the item succeeded.
+     * @return
+     */
+    public boolean isSuccess() {
+        return exception == null;
+    }
+
+    /**
+     * Returns the result of the item, or raises the exception of its last failed attempt.
+     * @return
+     * @throws Exception
+     */
+    public T get() throws Exception {
+        if (exception != null) {
+            throw exception;
+        }
+        return result;
+    }
+
+    /**
+     * Returns the exception of the last failed attempt of the item, null if it succeeded.
+     * @return
+     */
+    public Exception getException() {
+        return exception;
+    }
+
+    /**
+     * Returns the number of attempts made for the item.
+     * @return
+     */
+    public int getAttempts() {
+        return attempts;
+    }
+
+    @Override
+    public String toString() {
+        return "BatchResult{" +
+                "result=" + result +
+                ", exception=" + exception +
+                ", attempts=" + attempts +
+                '}';
+    }
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright 2017 The Retrier AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.retrier;
+
+
+/**
+ * {@link Clock} defines the semantics of the monotonic time source measuring the elapsed time of the retries, like
+ * {@link System#nanoTime()} its value is only meaningful as the difference of two readings.
+ */
+@FunctionalInterface
+public interface Clock {
+
+    // Clock reading System.nanoTime, unaffected by the wall clock adjustments.
+    Clock SYSTEM = System::nanoTime;
+
+    /**
+     * Returns the current time in nanoseconds, relative to an arbitrary origin.
+     * @return
+     */
+    long nanoTime();
+}
@@ -16,7 +16,18 @@
 package io.github.ravichaturvedi.retrier;
 
 
+import io.github.ravichaturvedi.retrier.breaker.CircuitBreaker;
+import io.github.ravichaturvedi.retrier.budget.RetryBudget;
+import io.github.ravichaturvedi.retrier.bulkhead.Bulkhead;
+import io.github.ravichaturvedi.retrier.concurrency.ConcurrencyLimiter;
+import io.github.ravichaturvedi.retrier.hedge.Hedging;
+import io.github.ravichaturvedi.retrier.metrics.RetryMetrics;
+
 import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Function;
+import java.util.function.Predicate;
 
 /**
  * {@link Config} defines the various config that can be supplied to the Retrier.
@@ -28,15 +39,78 @@ public class Config {
     // Timeout Duration
     public Duration timeoutDuration;
 
+    // Max Duration of a single attempt, enforced by cancelling the attempt
+    public Duration attemptTimeoutDuration;
+
+    // Deadline Duration of the whole retry, enforced by cancelling the attempt in flight
+    public Duration deadlineDuration;
+
     // Exponential Backoff Duration
     public Duration expBackoffDuration;
 
     // Max Exponential Backoff Duration
     public Duration expBackoffMaxDuration;
 
+    // Backoff Strategy, used instead of exponential backoff if provided
+    public BackoffStrategy backoffStrategy;
+
+    // Retry Budget shared by all the retry calls
+    public RetryBudget retryBudget;
+
+    // Factory of the Retry Budget on the clock of the retrier, creating the retry budget once all the options are processed
+    public Function<Clock, RetryBudget> retryBudgetFactory;
+
+    // Circuit Breaker shared by all the retry calls
+    public CircuitBreaker circuitBreaker;
+
+    // Factory of the Circuit Breaker on the clock of the retrier, creating the circuit breaker once all the options are processed
+    public Function<Clock, CircuitBreaker> circuitBreakerFactory;
+
+    // Bulkhead capping the concurrent attempts of all the retry calls
+    public Bulkhead bulkhead;
+
+    // Concurrency Limiter of the attempts of all the retry calls
+    public ConcurrencyLimiter concurrencyLimiter;
+
+    // Predicate of the results to be retried, as if the attempt had failed
+    public Predicate<Object> resultPredicate;
+
+    // Hedging of the attempts
+    public Hedging hedging;
+
+    // Executor to run the attempts which have to be cancelled on timeout, and the retryEach elements if a ForkJoinPool
+    public ExecutorService executor;
+
+    // Size of the history of the failed attempts of a retry call, raising RetriesExhaustedException on exhaustion if provided
+    public Integer attemptHistorySize;
+
+    // Whether RetriesExhaustedException is raised without stack trace
+    public boolean stacklessExhaustion;
+
+    // Max number of earlier failures attached as suppressed to RetriesExhaustedException
+    public Integer maxSuppressedFailures;
+
+    // Whether the attempts run as a managed block when called on a fork-join worker
+    public boolean managedBlocking;
+
+    // Clock measuring the elapsed time of the retries, System.nanoTime if not provided
+    public Clock clock;
+
+    // Sleeper waiting out the backoff delay of the blocking retries, Sleeper.THREAD if not provided
+    public Sleeper sleeper;
+
     // Tracer to trace the execution
     public Tracer tracer;
 
+    // Scheduler to schedule the async retries after the backoff delay
+    public ScheduledExecutorService scheduler;
+
+    // Listener to be notified of the execution events
+    public RetryListener listener;
+
+    // Metrics to be registered over JMX, also added to the listener
+    public RetryMetrics metrics;
+
     /**
      * Returns a new copy of the {@link Config}.
      *
@@ -48,7 +122,28 @@ public class Config {
         config.maxRetries = maxRetries;
         config.timeoutDuration = timeoutDuration;
         config.expBackoffMaxDuration = expBackoffMaxDuration;
+        config.attemptTimeoutDuration = attemptTimeoutDuration;
+        config.deadlineDuration = deadlineDuration;
+        config.backoffStrategy = backoffStrategy;
+        config.retryBudget = retryBudget;
+        config.retryBudgetFactory = retryBudgetFactory;
+        config.circuitBreaker = circuitBreaker;
+        config.circuitBreakerFactory = circuitBreakerFactory;
+        config.bulkhead = bulkhead;
+        config.concurrencyLimiter = concurrencyLimiter;
+        config.resultPredicate = resultPredicate;
+        config.hedging = hedging;
+        config.executor = executor;
+        config.attemptHistorySize = attemptHistorySize;
+        config.stacklessExhaustion = stacklessExhaustion;
+        config.maxSuppressedFailures = maxSuppressedFailures;
+        config.managedBlocking = managedBlocking;
+        config.clock = clock;
+        config.sleeper = sleeper;
         config.tracer = tracer;
+        config.scheduler = scheduler;
+        config.listener = listener;
+        config.metrics = metrics;
         return config;
     }
 
@@ -57,9 +152,30 @@ public class Config {
         return "Config{" +
                 "maxRetries=" + maxRetries +
                 ", timeoutDuration=" + timeoutDuration +
+                ", attemptTimeoutDuration=" + attemptTimeoutDuration +
+                ", deadlineDuration=" + deadlineDuration +
                 ", expBackoffDuration=" + expBackoffDuration +
                 ", expBackoffMaxDuration=" + expBackoffMaxDuration +
+                ", backoffStrategy=" + backoffStrategy +
+                ", retryBudget=" + retryBudget +
+                ", retryBudgetFactory=" + retryBudgetFactory +
+                ", circuitBreaker=" + circuitBreaker +
+                ", circuitBreakerFactory=" + circuitBreakerFactory +
+                ", bulkhead=" + bulkhead +
+                ", concurrencyLimiter=" + concurrencyLimiter +
+                ", resultPredicate=" + resultPredicate +
+                ", hedging=" + hedging +
+                ", executor=" + executor +
+                ", attemptHistorySize=" + attemptHistorySize +
+                ", stacklessExhaustion=" + stacklessExhaustion +
+                ", maxSuppressedFailures=" + maxSuppressedFailures +
+                ", managedBlocking=" + managedBlocking +
+                ", clock=" + clock +
+                ", sleeper=" + sleeper +
                 ", tracer=" + tracer +
+                ", scheduler=" + scheduler +
+                ", listener=" + listener +
+                ", metrics=" + metrics +
                 '}';
     }
 }
@@ -15,11 +15,45 @@
  */
 package io.github.ravichaturvedi.retrier;
 
-import io.github.ravichaturvedi.retrier.handler.CompositeHandler;
+import io.github.ravichaturvedi.retrier.flow.Flow;
+import io.github.ravichaturvedi.retrier.flow.RetryPublisher;
+import io.github.ravichaturvedi.retrier.handler.Execution;
+import io.github.ravichaturvedi.retrier.handler.ExecutionPlan;
+import io.github.ravichaturvedi.retrier.helper.ManagedBlocking;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Spliterator;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.Future;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 
+import static io.github.ravichaturvedi.retrier.helper.Ensurer.ensure;
 import static io.github.ravichaturvedi.retrier.helper.Ensurer.ensureNotNull;
+import static io.github.ravichaturvedi.retrier.helper.Exceptions.getCause;
+import static io.github.ravichaturvedi.retrier.helper.Exceptions.getUncheckedCause;
+import static io.github.ravichaturvedi.retrier.helper.Schedulers.defaultExecutor;
+import static io.github.ravichaturvedi.retrier.helper.Schedulers.defaultScheduler;
 
 
 /**
@@ -29,32 +63,556 @@ class DefaultRetrier implements Retrier {
 
     private final Config config;
 
+    // Config compiled once, shared by all the retry calls.
+    private final ExecutionPlan plan;
+
+    // Retries in flight by key, for the single-flight retries.
+    private final ConcurrentHashMap<Object, CompletableFuture<?>> inFlightRetries = new ConcurrentHashMap<>();
+
     DefaultRetrier(Config config) {
         ensureNotNull(config, "Config cannot be null.");
         this.config = config;
+        this.plan = new ExecutionPlan(config);
+    }
+
+    @Override
+    public RetryPolicy getPolicy() {
+        return plan.getPolicy();
     }
 
     @Override
     public <T> T retry(Handler handler, Callable<T> callable) throws Exception {
-        ThreadLocalTracer.setTracer(config.tracer);
+        return retry(plan.newExecution(handler), callable, plan.getResultPredicate());
+    }
 
-        try {
-            return retryInternal(handler, callable);
-        } finally {
-            ThreadLocalTracer.removeTracer();
-        }
+    @Override
+    public <T> T retry(Handler handler, RetryCallable<T> callable) throws Exception {
+        ensureNotNull(callable, "Callable cannot be null.");
+        Execution h = plan.newExecution(handler);
+        return retry(h, () -> callable.call(h), plan.getResultPredicate());
     }
 
-    private <T> T retryInternal(Handler handler, Callable<T> callable) throws Exception {
-        Handler h = new CompositeHandler(config, handler);
+    @Override
+    public <T> T retry(Handler handler, Callable<T> callable, Predicate<? super T> resultPredicate) throws Exception {
+        ensureNotNull(resultPredicate, "Result predicate cannot be null.");
+        return retry(plan.newExecution(handler), callable, resultPredicate);
+    }
 
+    private <T> T retry(Execution h, Callable<T> callable, Predicate<? super T> resultPredicate) throws Exception {
+        // Handlers get the tracer from the execution context, so nothing is kept in thread locals.
         while (true) {
             try {
                 h.handlePreExec();
-                T result = callable.call();
-                return h.handlePostExec(result);
+                T result = call(h, callable, h.attemptTimeoutInNanos());
+                if (!h.shouldRetry(result, resultPredicate)) {
+                    return h.handlePostExec(result);
+                }
             } catch (Exception e) {
                 h.handleException(e);
+            } catch (Throwable t) {
+                // Errors are not retried, but the permits of the attempt must not be lost with them.
+                h.handleCancel();
+                throw t;
+            }
+        }
+    }
+
+    private <T> T call(Execution h, Callable<T> callable, long timeoutInNanos) throws Exception {
+        Callable<T> attempt = hedged(h, callable);
+        if (timeoutInNanos == Long.MAX_VALUE) {
+            return config.managedBlocking ? ManagedBlocking.call(attempt) : attempt.call();
+        }
+
+        // Run the attempt on another thread, so it can be cancelled once it runs out of time.
+        Future<T> future;
+        try {
+            future = executor().submit(attempt);
+        } catch (RejectedExecutionException e) {
+            // Executor is saturated, so the attempt runs on the calling thread, interrupted once out of time.
+            return callInterruptibly(h, callable, timeoutInNanos);
+        }
+        try {
+            if (config.managedBlocking) {
+                return ManagedBlocking.call(() -> future.get(timeoutInNanos, TimeUnit.NANOSECONDS));
+            }
+            return future.get(timeoutInNanos, TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            throw getCause(e);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new TimeoutException("Attempt timed out after " + Duration.ofNanos(timeoutInNanos) + ".");
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            throw e;
+        }
+    }
+
+    // Run the attempt on the calling thread, interrupting it once it runs out of time, for the callers already running on the executor.
+    private <T> T callInterruptibly(Execution h, Callable<T> callable, long timeoutInNanos) throws Exception {
+        Callable<T> attempt = hedged(h, callable);
+        if (timeoutInNanos == Long.MAX_VALUE) {
+            return config.managedBlocking ? ManagedBlocking.call(attempt) : attempt.call();
+        }
+
+        Thread thread = Thread.currentThread();
+        AttemptTimeout timeout = new AttemptTimeout(thread);
+        ScheduledFuture<?> timeoutFuture = scheduler().schedule(timeout, timeoutInNanos, TimeUnit.NANOSECONDS);
+        try {
+            return config.managedBlocking ? ManagedBlocking.call(attempt) : attempt.call();
+        } catch (Exception e) {
+            if (timeout.complete()) {
+                throw new TimeoutException("Attempt timed out after " + Duration.ofNanos(timeoutInNanos) + ".");
+            }
+            throw e;
+        } finally {
+            timeoutFuture.cancel(false);
+            if (timeout.complete()) {
+                // Clear the interrupt of a timeout which fired as the attempt was completing.
+                Thread.interrupted();
+            }
+        }
+    }
+
+    // Hedges are failed as soon as one fails with an exception the handler cannot handle, and take their own permits.
+    private <T> Callable<T> hedged(Execution h, Callable<T> callable) {
+        return config.hedging == null ? callable : () -> config.hedging.call(callable, h::canHandle, h.hedgePermits());
+    }
+
+    /**
+     * {@link AttemptTimeout} interrupts the thread running an attempt once it is out of time, unless the attempt completed before.
+     */
+    private static final class AttemptTimeout implements Runnable {
+
+        private final Thread thread;
+
+        // Whether the attempt completed, and whether the thread was interrupted, guarded by this.
+        private boolean completed;
+        private boolean timedOut;
+
+        AttemptTimeout(Thread thread) {
+            this.thread = thread;
+        }
+
+        @Override
+        public synchronized void run() {
+            if (!completed) {
+                timedOut = true;
+                thread.interrupt();
+            }
+        }
+
+        // Mark the attempt as completed, returning whether it timed out (and so its thread got interrupted).
+        synchronized boolean complete() {
+            completed = true;
+            return timedOut;
+        }
+    }
+
+    @Override
+    public <T> T retry(Object key, Handler handler, Callable<T> callable) throws Exception {
+        ensureNotNull(key, "Key cannot be null.");
+        CompletableFuture<T> retry = new CompletableFuture<>();
+        CompletableFuture<?> inFlightRetry = inFlightRetries.putIfAbsent(key, retry);
+        if (inFlightRetry != null) {
+            return await(inFlightRetry);
+        }
+
+        // Key is released before completing, so the callers coming after the completion start a new retry.
+        T result;
+        try {
+            result = retry(handler, callable);
+        } catch (Throwable t) {
+            // Any throwable (even one sneaked past the checked exceptions) completes the joiners, so none waits forever.
+            inFlightRetries.remove(key, retry);
+            retry.completeExceptionally(t);
+            throw t;
+        } finally {
+            inFlightRetries.remove(key, retry);
+        }
+        retry.complete(result);
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T await(CompletableFuture<?> retry) throws Exception {
+        try {
+            return (T) retry.get();
+        } catch (ExecutionException e) {
+            throw getCause(e);
+        }
+    }
+
+    @Override
+    public <T> List<BatchResult<T>> retryAll(Handler handler, Collection<? extends Callable<T>> callables, int parallelism) throws InterruptedException {
+        ensureNotNull(handler, "Handler cannot be null.");
+        ensureNotNull(callables, "Callables cannot be null.");
+        ensure(parallelism > 0, "Parallelism should be positive.");
+        return new BatchRetry<>(handler, callables, parallelism).retry();
+    }
+
+    @Override
+    public <T, R> ParallelResult<T, R> retryEach(Handler handler, Spliterator<T> spliterator, RetryFunction<? super T, ? extends R> function) throws InterruptedException {
+        ensureNotNull(handler, "Handler cannot be null.");
+        ensureNotNull(spliterator, "Spliterator cannot be null.");
+        ensureNotNull(function, "Function cannot be null.");
+
+        ForkJoinPool pool = config.executor instanceof ForkJoinPool ? (ForkJoinPool) config.executor : ForkJoinPool.commonPool();
+        long sizeThreshold = Math.max(spliterator.estimateSize() / (pool.getParallelism() * 4L), 1);
+        RetryEachTask<T, R> task = new RetryEachTask<T, R>(handler, spliterator, function, sizeThreshold);
+
+        // Don't block a worker of the pool waiting for the task, it joins the work instead.
+        if (ForkJoinTask.getPool() == pool) {
+            return task.invoke();
+        }
+        try {
+            return pool.submit(task).get();
+        } catch (InterruptedException e) {
+            task.cancel(true);
+            throw e;
+        } catch (ExecutionException e) {
+            // Elements catch their exceptions, so only an Error or a failure of the stream itself (e.g. of an upstream stage) can get here.
+            throw getUncheckedCause(e);
+        }
+    }
+
+    /**
+     * {@link RetryEachTask} retries every element of its {@link Spliterator}, splitting it in halves forked on the pool
+     * until it is below the size threshold.
+     * <p>
+     * Every element gets its own {@link Execution} of the shared plan, so no handler chain is built per element.
+     */
+    private class RetryEachTask<T, R> extends RecursiveTask<ParallelResult<T, R>> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Handler handler;
+        private final Spliterator<T> spliterator;
+        private final RetryFunction<? super T, ? extends R> function;
+        private final long sizeThreshold;
+
+        RetryEachTask(Handler handler, Spliterator<T> spliterator, RetryFunction<? super T, ? extends R> function, long sizeThreshold) {
+            this.handler = handler;
+            this.spliterator = spliterator;
+            this.function = function;
+            this.sizeThreshold = sizeThreshold;
+        }
+
+        @Override
+        protected ParallelResult<T, R> compute() {
+            Spliterator<T> prefix;
+            if (spliterator.estimateSize() > sizeThreshold && (prefix = spliterator.trySplit()) != null) {
+                RetryEachTask<T, R> prefixTask = new RetryEachTask<T, R>(handler, prefix, function, sizeThreshold);
+                prefixTask.fork();
+                ParallelResult<T, R> suffixResult = new RetryEachTask<T, R>(handler, spliterator, function, sizeThreshold).compute();
+                return prefixTask.join().append(suffixResult);
+            }
+
+            ParallelResult<T, R> result = new ParallelResult<>();
+            spliterator.forEachRemaining(element -> {
+                try {
+                    result.addResult(retry(plan.newExecution(handler), () -> function.apply(element), plan.getResultPredicate()));
+                } catch (Exception e) {
+                    result.addExhausted(element, e);
+                }
+            });
+            return result;
+        }
+    }
+
+    @Override
+    public <T> CompletableFuture<T> retryAsync(Handler handler, Supplier<? extends CompletionStage<T>> supplier) {
+        return startAsync(handler, supplier, plan.getResultPredicate());
+    }
+
+    @Override
+    public <T> CompletableFuture<T> retryAsync(Handler handler, Supplier<? extends CompletionStage<T>> supplier, Predicate<? super T> resultPredicate) {
+        ensureNotNull(resultPredicate, "Result predicate cannot be null.");
+        return startAsync(handler, supplier, resultPredicate);
+    }
+
+    private <T> CompletableFuture<T> startAsync(Handler handler, Supplier<? extends CompletionStage<T>> supplier, Predicate<? super T> resultPredicate) {
+        ensureNotNull(supplier, "Supplier cannot be null.");
+        AsyncRetry<T> asyncRetry = new AsyncRetry<>(handler, supplier, resultPredicate);
+        asyncRetry.attempt();
+        return asyncRetry.future;
+    }
+
+    @Override
+    public <T, P> Flow.Publisher<T> retryFlow(Handler handler, P initialPosition, Function<? super P, ? extends Flow.Publisher<T>> publisherFunction,
+                                              Function<? super T, ? extends P> positionFunction) {
+        return new RetryPublisher<>(plan, scheduler(), handler, initialPosition, publisherFunction, positionFunction);
+    }
+
+    private ScheduledExecutorService scheduler() {
+        return config.scheduler != null ? config.scheduler : defaultScheduler();
+    }
+
+    private Sleeper sleeper() {
+        return config.sleeper != null ? config.sleeper : Sleeper.THREAD;
+    }
+
+    private ExecutorService executor() {
+        return config.executor != null ? config.executor : defaultExecutor();
+    }
+
+    /**
+     * {@link BatchRetry} keeps track of a single batch retry execution, where each round only runs the items failed in the previous one.
+     * <p>
+     * Every item has its own {@link Execution}, so it holds its own bulkhead, concurrency and circuit breaker permits while it runs
+     * and its outcome is recorded on its own. It acts as the {@link Sleeper} of these executions, so the backoff delay of the
+     * failed items is waited out only once per round, for the longest one. Attempts run on the workers themselves, which are
+     * interrupted once out of time instead of running the attempt on yet another thread of the executor.
+     */
+    private class BatchRetry<T> implements Sleeper {
+
+        private final List<Callable<T>> callables;
+        private final int parallelism;
+
+        private final Execution[] executions;
+
+        // Outcome of the last attempt of every item, and whether the item is to be run again in the next round.
+        private final Object[] results;
+        private final Exception[] exceptions;
+        private final boolean[] retryable;
+
+        // Longest backoff delay requested by the items failed in the current round.
+        private final AtomicLong delayInMillisec = new AtomicLong();
+
+        BatchRetry(Handler handler, Collection<? extends Callable<T>> callables, int parallelism) {
+            this.callables = new ArrayList<>(callables);
+            this.callables.forEach(callable -> ensureNotNull(callable, "Callable cannot be null."));
+            this.parallelism = parallelism;
+            this.executions = new Execution[this.callables.size()];
+            for (int i = 0; i < executions.length; i++) {
+                executions[i] = plan.newExecution(handler, this);
+            }
+            this.results = new Object[this.callables.size()];
+            this.exceptions = new Exception[this.callables.size()];
+            this.retryable = new boolean[this.callables.size()];
+        }
+
+        @Override
+        public void sleep(long durationInMillisec) {
+            delayInMillisec.accumulateAndGet(durationInMillisec, Math::max);
+        }
+
+        List<BatchResult<T>> retry() throws InterruptedException {
+            // Indexes of the items to be run in the next round.
+            int[] pending = new int[callables.size()];
+            for (int i = 0; i < pending.length; i++) {
+                pending[i] = i;
+            }
+            int pendingCount = pending.length;
+
+            while (pendingCount > 0) {
+                delayInMillisec.set(0);
+                runRound(pending, pendingCount);
+
+                // Keep only the failed items which can be retried, the others keep their exception.
+                int retryCount = 0;
+                for (int k = 0; k < pendingCount; k++) {
+                    if (retryable[pending[k]]) {
+                        pending[retryCount++] = pending[k];
+                    }
+                }
+                pendingCount = retryCount;
+
+                if (pendingCount > 0 && delayInMillisec.get() > 0) {
+                    try {
+                        sleeper().sleep(delayInMillisec.get());
+                    } catch (InterruptedException ie) {
+                        // Preserve the interrupt status, the items not retried keep their last exception.
+                        Thread.currentThread().interrupt();
+                        break;
+                    }
+                }
+            }
+
+            List<BatchResult<T>> batchResults = new ArrayList<>(callables.size());
+            for (int i = 0; i < results.length; i++) {
+                @SuppressWarnings("unchecked")
+                T result = (T) results[i];
+                int attempts = executions[i].getAttempt();
+                batchResults.add(exceptions[i] == null ? BatchResult.success(result, attempts) : BatchResult.failure(exceptions[i], attempts));
+            }
+            return batchResults;
+        }
+
+        private void runRound(int[] pending, int pendingCount) throws InterruptedException {
+            AtomicInteger next = new AtomicInteger();
+            Runnable worker = () -> {
+                int k;
+                while ((k = next.getAndIncrement()) < pendingCount) {
+                    attempt(pending[k]);
+                }
+            };
+
+            // Calling thread is one of the workers, so no thread is involved at all with a parallelism of 1.
+            int workerCount = Math.min(parallelism, pendingCount);
+            List<Future<?>> workers = new ArrayList<>(workerCount - 1);
+            try {
+                for (int w = 1; w < workerCount; w++) {
+                    workers.add(executor().submit(worker));
+                }
+            } catch (RejectedExecutionException e) {
+                // Executor is saturated, the round goes on with the workers started so far.
+            }
+
+            try {
+                worker.run();
+                for (Future<?> future : workers) {
+                    future.get();
+                }
+            } catch (ExecutionException e) {
+                // Items catch their exceptions, so only an Error can get here.
+                throw getUncheckedCause(e);
+            } finally {
+                for (Future<?> future : workers) {
+                    future.cancel(true);
+                }
+            }
+        }
+
+        private void attempt(int i) {
+            Execution execution = executions[i];
+            try {
+                execution.handlePreExec();
+                results[i] = execution.handlePostExec(callInterruptibly(execution, callables.get(i), execution.attemptTimeoutInNanos()));
+                exceptions[i] = null;
+                retryable[i] = false;
+            } catch (Exception e) {
+                try {
+                    execution.handleException(e);
+                    exceptions[i] = e;
+                    retryable[i] = true;
+                } catch (Exception ex) {
+                    // Exception cannot be handled or a limit is exceeded, so the item keeps the exception raised by its execution.
+                    exceptions[i] = ex;
+                    retryable[i] = false;
+                }
+            } catch (Throwable t) {
+                execution.handleCancel();
+                throw t;
+            }
+        }
+    }
+
+    /**
+     * {@link AsyncRetry} keeps track of a single async retry execution, where each attempt is started on completion of the previous one.
+     * <p>
+     * It acts as the {@link Sleeper} of its handler chain, so the backoff delay gets scheduled instead of blocking the thread.
+     */
+    private class AsyncRetry<T> implements Sleeper {
+
+        // Future to be completed with the outcome of the retry.
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+
+        private final Execution handler;
+        private final Supplier<? extends CompletionStage<T>> supplier;
+
+        // Predicate of the results to be retried, null if none.
+        private final Predicate<? super T> resultPredicate;
+
+        // Backoff delay requested by the handler chain for the next attempt.
+        private long delayInMillisec;
+
+        AsyncRetry(Handler handler, Supplier<? extends CompletionStage<T>> supplier, Predicate<? super T> resultPredicate) {
+            this.handler = plan.newNonBlockingExecution(handler, this);
+            this.supplier = supplier;
+            this.resultPredicate = resultPredicate;
+        }
+
+        @Override
+        public void sleep(long durationInMillisec) {
+            delayInMillisec += durationInMillisec;
+        }
+
+        void attempt() {
+            // Caller is not interested in the result anymore (e.g. cancelled the future).
+            if (future.isDone()) {
+                return;
+            }
+
+            CompletionStage<T> stage;
+            try {
+                handler.handlePreExec();
+                stage = supplier.get();
+                ensureNotNull(stage, "Supplier cannot return null.");
+            } catch (Throwable t) {
+                CompletableFuture<T> failed = new CompletableFuture<>();
+                failed.completeExceptionally(t);
+                stage = failed;
+            }
+
+            long timeoutInNanos = handler.attemptTimeoutInNanos();
+            if (timeoutInNanos == Long.MAX_VALUE) {
+                stage.whenComplete(this::complete);
+            } else {
+                withTimeout(stage, timeoutInNanos).whenComplete(this::complete);
+            }
+        }
+
+        private CompletableFuture<T> withTimeout(CompletionStage<T> stage, long timeoutInNanos) {
+            CompletableFuture<T> attempt = new CompletableFuture<>();
+            ScheduledFuture<?> timeout = scheduler().schedule(() -> {
+                if (attempt.completeExceptionally(new TimeoutException("Attempt timed out after " + Duration.ofNanos(timeoutInNanos) + "."))) {
+                    cancel(stage);
+                }
+            }, timeoutInNanos, TimeUnit.NANOSECONDS);
+
+            stage.whenComplete((result, t) -> {
+                timeout.cancel(false);
+                if (t == null) {
+                    attempt.complete(result);
+                } else {
+                    attempt.completeExceptionally(t);
+                }
+            });
+            return attempt;
+        }
+
+        private void cancel(CompletionStage<T> stage) {
+            try {
+                stage.toCompletableFuture().cancel(true);
+            } catch (UnsupportedOperationException e) {
+                // Stage cannot be cancelled, its outcome is ignored anyway.
+            }
+        }
+
+        private void complete(T result, Throwable t) {
+            try {
+                if (t == null) {
+                    delayInMillisec = 0;
+                    if (handler.shouldRetry(result, resultPredicate)) {
+                        schedule();
+                    } else {
+                        future.complete(handler.handlePostExec(result));
+                    }
+                    return;
+                }
+
+                Throwable cause = t instanceof CompletionException && t.getCause() != null ? t.getCause() : t;
+                if (!(cause instanceof Exception)) {
+                    handler.handleCancel();
+                    future.completeExceptionally(cause);
+                    return;
+                }
+
+                // Let the handler chain decide whether to retry, it raises the exception otherwise.
+                delayInMillisec = 0;
+                handler.handleException((Exception) cause);
+                schedule();
+            } catch (Exception e) {
+                future.completeExceptionally(e);
+            }
+        }
+
+        private void schedule() {
+            // Always hop onto the scheduler, so synchronously failing stages don't recurse on the caller stack.
+            if (delayInMillisec > 0) {
+                scheduler().schedule(this::attempt, delayInMillisec, TimeUnit.MILLISECONDS);
+            } else {
+                scheduler().execute(this::attempt);
             }
         }
     }
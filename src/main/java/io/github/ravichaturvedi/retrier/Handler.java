@@ -27,6 +27,14 @@ public interface Handler {
     default void handlePreExec() {
     }
 
+    /**
+     * Handle the pre-execution of the retry with the {@link RetryContext} of the attempt, which defaults to {@link #handlePreExec()}.
+     * @param context
+     */
+    default void handlePreExec(RetryContext context) {
+        handlePreExec();
+    }
+
     /**
      * Handle the post-execution of the retry, in case need to transform the result in some way.
      * @param result
@@ -37,10 +45,42 @@ public interface Handler {
         return result;
     }
 
+    /**
+     * Handle the post-execution of the retry with the {@link RetryContext} of the attempt, which defaults to {@link #handlePostExec(Object)}.
+     * @param context
+     * @param result
+     * @param <T>
+     * @return
+     */
+    default <T> T handlePostExec(RetryContext context, T result) {
+        return handlePostExec(result);
+    }
+
     /**
      * Handle the {@link Exception} raised during the retry.
      * @param e
      * @throws Exception
      */
     void handleException(Exception e) throws Exception;
+
+    /**
+     * Returns whether the {@link Exception} can be handled, without handling it (so without any side effect), which tells
+     * an exception not retried from the one exceeding a limit. Defaults to true, as only the handling itself can tell.
+     * @param e
+     * @return
+     */
+    default boolean canHandle(Exception e) {
+        return true;
+    }
+
+    /**
+     * Handle the {@link Exception} raised during the retry with the {@link RetryContext} of the attempt,
+     * which defaults to {@link #handleException(Exception)}.
+     * @param context
+     * @param e
+     * @throws Exception
+     */
+    default void handleException(RetryContext context, Exception e) throws Exception {
+        handleException(e);
+    }
 }
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2017 The Retrier AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.retrier;
+
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * {@link ParallelResult} is the outcome of {@link Retrier#retryEach}: the results of the successful elements, and separately
+ * the elements whose retries were exhausted along with the exception of their last failed attempt, both in encounter order.
+ */
+public final class ParallelResult<T, R> {
+
+    private final List<R> results = new ArrayList<>();
+
+    // Exhausted elements, and the exception of each at the same index.
+    private final List<T> exhaustedElements = new ArrayList<>();
+    private final List<Exception> exceptions = new ArrayList<>();
+
+    ParallelResult() {
+    }
+
+    void addResult(R result) {
+        results.add(result);
+    }
+
+    void addExhausted(T element, Exception exception) {
+        exhaustedElements.add(element);
+        exceptions.add(exception);
+    }
+
+    // Append the outcomes of the provided result, which come after the ones of this result in encounter order.
+    ParallelResult<T, R> append(ParallelResult<T, R> other) {
+        results.addAll(other.results);
+        exhaustedElements.addAll(other.exhaustedElements);
+        exceptions.addAll(other.exceptions);
+        return this;
+    }
+
+    /**
+     * Returns whether no element got exhausted.
+     * @return
+     */
+    public boolean isSuccess() {
+        return exhaustedElements.isEmpty();
+    }
+
+    /**
+     * Returns the results of the successful elements.
+     * @return
+     */
+    public List<R> getResults() {
+        return Collections.unmodifiableList(results);
+    }
+
+    /**
+     * Returns the elements whose retries were exhausted.
+     * @return
+     */
+    public List<T> getExhaustedElements() {
+        return Collections.unmodifiableList(exhaustedElements);
+    }
+
+    /**
+     * Returns the exception of the last failed attempt of every exhausted element, at the index of the element.
+     * @return
+     */
+    public List<Exception> getExceptions() {
+        return Collections.unmodifiableList(exceptions);
+    }
+
+    @Override
+    public String toString() {
+        return "ParallelResult{" +
+                "results=" + results.size() +
+                ", exhaustedElements=" + exhaustedElements.size() +
+                '}';
+    }
+}
@@ -15,9 +15,22 @@
  */
 package io.github.ravichaturvedi.retrier;
 
+import io.github.ravichaturvedi.retrier.flow.Flow;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Spliterator;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 import static io.github.ravichaturvedi.retrier.Retry.on;
+import static io.github.ravichaturvedi.retrier.helper.Ensurer.ensureNotNull;
 
 
 /**
@@ -28,6 +41,12 @@ public interface Retrier {
     // Handler dealing with all types of exception as handling `Exception.class`
     Handler ON_ALL_EXCEPTION = on(Exception.class);
 
+    /**
+     * Returns the immutable {@link RetryPolicy} of the limits and exponential backoff of this retrier.
+     * @return
+     */
+    RetryPolicy getPolicy();
+
     /**
      * Retry the {@link Callable} with the provided {@link Handler}, which can be created using `Retry.on` factory methods.
      * @param handler
@@ -38,6 +57,17 @@ public interface Retrier {
      */
     <T> T retry(Handler handler, Callable<T> callable) throws Exception;
 
+    /**
+     * Retry the {@link RetryCallable} with the provided {@link Handler}, passing the {@link RetryContext} of the attempt to it,
+     * e.g. to fit the timeout of a remote call into the remaining time.
+     * @param handler
+     * @param callable
+     * @param <T>
+     * @return
+     * @throws Exception
+     */
+    <T> T retry(Handler handler, RetryCallable<T> callable) throws Exception;
+
     /**
      * Retry the {@link Runner} with the provided {@link Handler}, which can be created using `Retry.on` factory methods.
      * @param handler
@@ -45,7 +75,8 @@ public interface Retrier {
      * @throws Exception
      */
     default void retry(Handler handler, Runner runner) throws Exception {
-        retry(handler, from(runner));
+        // Runner has no result, so the result predicate of the retrier doesn't apply to it.
+        retry(handler, from(runner), result -> false);
     }
 
     /**
@@ -65,7 +96,7 @@ public interface Retrier {
      * @throws Exception
      */
     default void retry(Runner runner, Handler handler) throws Exception {
-        retry(from(runner), handler);
+        retry(handler, runner);
     }
 
     /**
@@ -79,13 +110,218 @@ public interface Retrier {
         return retry(ON_ALL_EXCEPTION, callable);
     }
 
+    /**
+     * Retry the {@link RetryCallable} on all {@link Exception}s, passing the {@link RetryContext} of the attempt to it.
+     * @param callable
+     * @param <T>
+     * @return
+     * @throws Exception
+     */
+    default <T> T retry(RetryCallable<T> callable) throws Exception {
+        return retry(ON_ALL_EXCEPTION, callable);
+    }
+
     /**
      * Retry the {@link Runner} on all {@link Exception}s.
      * @param runner
      * @throws Exception
      */
     default void retry(Runner runner) throws Exception {
-        retry(from(runner));
+        retry(ON_ALL_EXCEPTION, runner);
+    }
+
+    /**
+     * Retry the {@link Callable} with the provided {@link Handler}, retrying as well the calls returning a result accepted by the
+     * provided predicate, as if they had failed. Retryable result is subject to the same limits and backoff as an exception and
+     * is returned as is once a limit is exceeded. The predicate takes precedence over the result predicate of the retrier,
+     * and an exception raised by it fails the retry instead of being retried.
+     * @param handler
+     * @param callable
+     * @param resultPredicate
+     * @param <T>
+     * @return
+     * @throws Exception
+     */
+    <T> T retry(Handler handler, Callable<T> callable, Predicate<? super T> resultPredicate) throws Exception;
+
+    /**
+     * Retry the {@link Callable} with the provided {@link Handler}, sharing a single retry with the concurrent calls of the same key
+     * (single-flight): only the first caller runs the retry, the others wait for it and get its result or its exception.
+     * Key is released as soon as the retry completes, so equal keys should only be used for the same operation.
+     * <p>
+     * Joining callers don't run their own {@link Handler} and {@link Callable}: the call in flight is retried with the handler of
+     * the first caller only. Key is not reentrant: calling it again for the same key from within the callable (on the same thread)
+     * waits for itself forever, until the thread is interrupted.
+     * @param key
+     * @param handler
+     * @param callable
+     * @param <T>
+     * @return
+     * @throws Exception
+     */
+    <T> T retry(Object key, Handler handler, Callable<T> callable) throws Exception;
+
+    /**
+     * Retry the {@link Callable} on all {@link Exception}s, sharing a single retry with the concurrent calls of the same key.
+     * @param key
+     * @param callable
+     * @param <T>
+     * @return
+     * @throws Exception
+     */
+    default <T> T retry(Object key, Callable<T> callable) throws Exception {
+        return retry(key, ON_ALL_EXCEPTION, callable);
+    }
+
+    /**
+     * Retry the batch of {@link Callable}s with the provided {@link Handler}, running at most `parallelism` of them at once.
+     * <p>
+     * Items are retried in rounds: each round only runs again the items which failed with an exception handled by the {@link Handler},
+     * after waiting once for the longest backoff delay of them, so the whole batch shares a single backoff clock. Every item is a retry
+     * call of its own for the limits, the bulkhead, concurrency limiter and circuit breaker permits, and the listener.
+     * Returns the {@link BatchResult} of every item, in the iteration order of the collection.
+     * @param handler
+     * @param callables
+     * @param parallelism
+     * @param <T>
+     * @return
+     * @throws InterruptedException
+     */
+    <T> List<BatchResult<T>> retryAll(Handler handler, Collection<? extends Callable<T>> callables, int parallelism) throws InterruptedException;
+
+    /**
+     * Retry the batch of {@link Callable}s on all {@link Exception}s, running at most `parallelism` of them at once.
+     * @param callables
+     * @param parallelism
+     * @param <T>
+     * @return
+     * @throws InterruptedException
+     */
+    default <T> List<BatchResult<T>> retryAll(Collection<? extends Callable<T>> callables, int parallelism) throws InterruptedException {
+        return retryAll(ON_ALL_EXCEPTION, callables, parallelism);
+    }
+
+    /**
+     * Apply the {@link RetryFunction} to every element of the {@link Spliterator} in parallel on a fork-join pool, retrying each element
+     * on its own with the provided {@link Handler}.
+     * <p>
+     * All the elements share the compiled limits and backoff of the retrier (and its retry budget), and an element whose retries are
+     * exhausted is collected into the {@link ParallelResult} instead of aborting the others. The pool is the executor of the retrier
+     * if it is a {@link ForkJoinPool}, the common pool otherwise.
+     * @param handler
+     * @param spliterator
+     * @param function
+     * @param <T>
+     * @param <R>
+     * @return
+     * @throws InterruptedException
+     */
+    <T, R> ParallelResult<T, R> retryEach(Handler handler, Spliterator<T> spliterator, RetryFunction<? super T, ? extends R> function) throws InterruptedException;
+
+    /**
+     * Apply the {@link RetryFunction} to every element of the {@link Stream} in parallel on a fork-join pool, retrying each element
+     * on its own with the provided {@link Handler}.
+     * @param handler
+     * @param stream
+     * @param function
+     * @param <T>
+     * @param <R>
+     * @return
+     * @throws InterruptedException
+     */
+    default <T, R> ParallelResult<T, R> retryEach(Handler handler, Stream<T> stream, RetryFunction<? super T, ? extends R> function) throws InterruptedException {
+        ensureNotNull(stream, "Stream cannot be null.");
+        return retryEach(handler, stream.spliterator(), function);
+    }
+
+    /**
+     * Apply the {@link RetryFunction} to every element of the {@link Stream} in parallel on a fork-join pool, retrying each element
+     * on all {@link Exception}s.
+     * @param stream
+     * @param function
+     * @param <T>
+     * @param <R>
+     * @return
+     * @throws InterruptedException
+     */
+    default <T, R> ParallelResult<T, R> retryEach(Stream<T> stream, RetryFunction<? super T, ? extends R> function) throws InterruptedException {
+        return retryEach(ON_ALL_EXCEPTION, stream, function);
+    }
+
+    /**
+     * Retry the async operation provided by the {@link Supplier} with the provided {@link Handler}, without blocking the calling thread.
+     * Backoff delay between the attempts is scheduled instead of sleeping, and the returned {@link CompletableFuture}
+     * completes with the first successful result or with the exception which could not be retried.
+     * @param handler
+     * @param supplier
+     * @param <T>
+     * @return
+     */
+    <T> CompletableFuture<T> retryAsync(Handler handler, Supplier<? extends CompletionStage<T>> supplier);
+
+    /**
+     * Retry the async operation provided by the {@link Supplier} with the provided {@link Handler}, without blocking the calling thread.
+     * @param supplier
+     * @param handler
+     * @param <T>
+     * @return
+     */
+    default <T> CompletableFuture<T> retryAsync(Supplier<? extends CompletionStage<T>> supplier, Handler handler) {
+        return retryAsync(handler, supplier);
+    }
+
+    /**
+     * Retry the async operation provided by the {@link Supplier} on all {@link Exception}s, without blocking the calling thread.
+     * @param supplier
+     * @param <T>
+     * @return
+     */
+    default <T> CompletableFuture<T> retryAsync(Supplier<? extends CompletionStage<T>> supplier) {
+        return retryAsync(ON_ALL_EXCEPTION, supplier);
+    }
+
+    /**
+     * Retry the async operation provided by the {@link Supplier} with the provided {@link Handler}, without blocking the calling thread,
+     * retrying as well the attempts completing with a result accepted by the provided predicate.
+     * The predicate takes precedence over the result predicate of the retrier, and an exception raised by it fails the retry.
+     * @param handler
+     * @param supplier
+     * @param resultPredicate
+     * @param <T>
+     * @return
+     */
+    <T> CompletableFuture<T> retryAsync(Handler handler, Supplier<? extends CompletionStage<T>> supplier, Predicate<? super T> resultPredicate);
+
+    /**
+     * Return a {@link Flow.Publisher} of the stream provided by the publisher function, resubscribing to it with the provided {@link Handler}
+     * when it fails, from the position of the last element delivered downstream.
+     * <p>
+     * Every subscription to the upstream is an attempt, so the limits and backoff apply between the resubscriptions (without blocking
+     * any thread), and an attempt delivering an element resets them for the next failure. Downstream demand is kept across the resubscriptions.
+     * @param handler
+     * @param initialPosition position passed to the publisher function for the first subscription, e.g. null for the start of the stream
+     * @param publisherFunction returns the publisher of the elements after the provided position
+     * @param positionFunction returns the position of an element
+     * @param <T>
+     * @param <P>
+     * @return
+     */
+    <T, P> Flow.Publisher<T> retryFlow(Handler handler, P initialPosition, Function<? super P, ? extends Flow.Publisher<T>> publisherFunction,
+                                       Function<? super T, ? extends P> positionFunction);
+
+    /**
+     * Return a {@link Flow.Publisher} of the stream provided by the publisher function, resubscribing to it on all {@link Exception}s,
+     * from the position of the last element delivered downstream.
+     * @param initialPosition
+     * @param publisherFunction
+     * @param positionFunction
+     * @param <T>
+     * @param <P>
+     * @return
+     */
+    default <T, P> Flow.Publisher<T> retryFlow(P initialPosition, Function<? super P, ? extends Flow.Publisher<T>> publisherFunction,
+                                               Function<? super T, ? extends P> positionFunction) {
+        return retryFlow(ON_ALL_EXCEPTION, initialPosition, publisherFunction, positionFunction);
     }
 
     /**
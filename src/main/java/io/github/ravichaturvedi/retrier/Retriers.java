@@ -15,7 +15,27 @@
  */
 package io.github.ravichaturvedi.retrier;
 
+import io.github.ravichaturvedi.retrier.backoff.AdaptiveBackoff;
+import io.github.ravichaturvedi.retrier.breaker.CircuitBreaker;
+import io.github.ravichaturvedi.retrier.budget.RetryBudget;
+import io.github.ravichaturvedi.retrier.bulkhead.Bulkhead;
+import io.github.ravichaturvedi.retrier.clock.CoarseClock;
+import io.github.ravichaturvedi.retrier.clock.VirtualClock;
+import io.github.ravichaturvedi.retrier.concurrency.ConcurrencyLimit;
+import io.github.ravichaturvedi.retrier.concurrency.ConcurrencyLimiter;
+import io.github.ravichaturvedi.retrier.hedge.Hedging;
+import io.github.ravichaturvedi.retrier.history.RetriesExhaustedException;
+import io.github.ravichaturvedi.retrier.metrics.RetryMetrics;
+import io.github.ravichaturvedi.retrier.timer.HashedWheelTimer;
+
 import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Predicate;
+
+import static io.github.ravichaturvedi.retrier.helper.Ensurer.ensureNotNull;
+import static io.github.ravichaturvedi.retrier.helper.Schedulers.defaultCoarseClock;
+import static io.github.ravichaturvedi.retrier.helper.Schedulers.defaultWheelTimer;
 
 /**
  * {@link Retriers} provide factory for creating new {@link Retrier} and methods to generate {@link Option} for the factory.
@@ -30,7 +50,20 @@ public class Retriers {
     public static Retrier create(Option... opts) {
         Config config = new Config();
         new Options(opts).process(config);
-        return new DefaultRetrier(config.copy());
+
+        // Breaker and budget of the convenience options are created on the clock of the retrier, known once all the options are processed.
+        Clock clock = config.clock != null ? config.clock : Clock.SYSTEM;
+        if (config.retryBudgetFactory != null) {
+            config.retryBudget = config.retryBudgetFactory.apply(clock);
+        }
+        if (config.circuitBreakerFactory != null) {
+            config.circuitBreaker = config.circuitBreakerFactory.apply(clock);
+        }
+        Retrier retrier = new DefaultRetrier(config.copy());
+        if (config.metrics != null) {
+            config.metrics.register();
+        }
+        return retrier;
     }
 
     /**
@@ -43,7 +76,8 @@ public class Retriers {
     }
 
     /**
-     * Create an {@link Option} with the provided timeout duration.
+     * Create an {@link Option} with the provided timeout duration, checked between the attempts.
+     * Backoff delay is cut to the remaining time, so no delay is waited past the timeout.
      * @param duration
      * @return
      */
@@ -51,13 +85,47 @@ public class Retriers {
         return c -> c.timeoutDuration = duration;
     }
 
+    /**
+     * Create an {@link Option} with the provided max duration of a single attempt.
+     * Attempt still running after it is cancelled (interrupted) and fails with {@link java.util.concurrent.TimeoutException}.
+     * @param duration
+     * @return
+     */
+    public static Option withAttemptTimeout(Duration duration) {
+        return c -> c.attemptTimeoutDuration = duration;
+    }
+
+    /**
+     * Create an {@link Option} with the provided deadline of the whole retry, including all the attempts and backoff delays.
+     * Unlike {@link #withTimeout(Duration)}, attempt in flight at the deadline is cancelled (interrupted) and fails with
+     * {@link java.util.concurrent.TimeoutException}, and no backoff delay is waited past the deadline.
+     * @param duration
+     * @return
+     */
+    public static Option withDeadline(Duration duration) {
+        return c -> c.deadlineDuration = duration;
+    }
+
+    /**
+     * Create an {@link Option} with the provided {@link ExecutorService} to run the attempts, when they have to be cancelled
+     * on attempt timeout or deadline. A {@link java.util.concurrent.ForkJoinPool} also runs the elements of {@link Retrier#retryEach}.
+     * @param executor
+     * @return
+     */
+    public static Option withExecutor(ExecutorService executor) {
+        return c -> c.executor = executor;
+    }
+
     /**
      * Create an {@link Option} with the provided exponential backoff delay.
      * @param delay
      * @return
      */
     public static Option withExpBackoff(Duration delay) {
-        return c -> c.expBackoffDuration = delay;
+        return c -> {
+            c.expBackoffDuration = delay;
+            c.backoffStrategy = null;
+        };
     }
 
     /**
@@ -73,6 +141,268 @@ public class Retriers {
         };
     }
 
+    /**
+     * Create an {@link Option} with the provided {@link BackoffStrategy} to compute the delay before every retry.
+     * It replaces the exponential backoff, if provided earlier.
+     * @param strategy
+     * @return
+     */
+    public static Option withBackoff(BackoffStrategy strategy) {
+        ensureNotNull(strategy, "Backoff strategy cannot be null.");
+        return c -> {
+            c.backoffStrategy = strategy;
+            c.expBackoffDuration = null;
+            c.expBackoffMaxDuration = null;
+        };
+    }
+
+    /**
+     * Create an {@link Option} with the {@link AdaptiveBackoff} between the provided min and max delay, whose base delay is shared
+     * by all the calls and adapted to the failure rate of their attempts.
+     * @param minDelay
+     * @param maxDelay
+     * @return
+     */
+    public static Option withAdaptiveBackoff(Duration minDelay, Duration maxDelay) {
+        ensureNotNull(minDelay, "Min delay cannot be null.");
+        ensureNotNull(maxDelay, "Max delay cannot be null.");
+        return withAdaptiveBackoff(new AdaptiveBackoff(minDelay.toMillis(), maxDelay.toMillis()));
+    }
+
+    /**
+     * Create an {@link Option} with the provided {@link AdaptiveBackoff}, also listening to the outcome of the attempts.
+     * @param backoff
+     * @return
+     */
+    public static Option withAdaptiveBackoff(AdaptiveBackoff backoff) {
+        ensureNotNull(backoff, "Adaptive backoff cannot be null.");
+        Option option = withBackoff(backoff);
+        return c -> {
+            option.process(c);
+            c.listener = RetryListeners.combine(c.listener, backoff);
+        };
+    }
+
+    /**
+     * Create an {@link Option} limiting the retries of all the calls to the provided ratio of the calls,
+     * plus the min retries per second. Retries over the budget fail fast with the actual exception.
+     * Budget is created on the clock of the {@link Retrier}.
+     * @param ratio
+     * @param minRetriesPerSecond
+     * @return
+     */
+    public static Option withRetryBudget(double ratio, int minRetriesPerSecond) {
+        return c -> {
+            c.retryBudget = null;
+            c.retryBudgetFactory = clock -> new RetryBudget(ratio, minRetriesPerSecond, clock);
+        };
+    }
+
+    /**
+     * Create an {@link Option} with the provided {@link RetryBudget}, which can be shared by multiple {@link Retrier}s.
+     * @param retryBudget
+     * @return
+     */
+    public static Option withRetryBudget(RetryBudget retryBudget) {
+        return c -> {
+            c.retryBudget = retryBudget;
+            c.retryBudgetFactory = null;
+        };
+    }
+
+    /**
+     * Create an {@link Option} with a {@link CircuitBreaker} opening on the provided failure rate (percentage),
+     * and permitting the trial calls after the wait duration. Breaker is created on the clock of the {@link Retrier}.
+     * @param failureRateThreshold
+     * @param waitDurationInOpenState
+     * @return
+     */
+    public static Option withCircuitBreaker(double failureRateThreshold, Duration waitDurationInOpenState) {
+        return c -> {
+            c.circuitBreaker = null;
+            c.circuitBreakerFactory = clock -> new CircuitBreaker(failureRateThreshold, waitDurationInOpenState, clock);
+        };
+    }
+
+    /**
+     * Create an {@link Option} with the provided {@link CircuitBreaker}. While the breaker is open, retry fails immediately with
+     * {@link io.github.ravichaturvedi.retrier.breaker.CircuitBreakerOpenException} without calling the operation,
+     * and a failed attempt is not retried.
+     * @param circuitBreaker
+     * @return
+     */
+    public static Option withCircuitBreaker(CircuitBreaker circuitBreaker) {
+        return c -> {
+            c.circuitBreaker = circuitBreaker;
+            c.circuitBreakerFactory = null;
+        };
+    }
+
+    /**
+     * Create an {@link Option} capping the concurrent attempts of the {@link Retrier} with a {@link Bulkhead}. Attempts over the cap
+     * wait in FIFO order up to the max wait, unless the max number of attempts are already waiting, and then fail with
+     * {@link io.github.ravichaturvedi.retrier.bulkhead.BulkheadFullException}. Permit is released during the backoff delay.
+     * Attempts of the async and flow retries never wait, as they are started on the shared scheduler, and fail right away instead.
+     * @param maxConcurrentAttempts
+     * @param maxWaitingAttempts
+     * @param maxWait
+     * @return
+     */
+    public static Option withBulkhead(int maxConcurrentAttempts, int maxWaitingAttempts, Duration maxWait) {
+        return withBulkhead(new Bulkhead(maxConcurrentAttempts, maxWaitingAttempts, maxWait));
+    }
+
+    /**
+     * Create an {@link Option} capping the concurrent attempts of the {@link Retrier} with the provided {@link Bulkhead}.
+     * @param bulkhead
+     * @return
+     */
+    public static Option withBulkhead(Bulkhead bulkhead) {
+        return c -> c.bulkhead = bulkhead;
+    }
+
+    /**
+     * Create an {@link Option} limiting the attempts in flight through the {@link Retrier} to the provided adaptive {@link ConcurrencyLimit}
+     * (e.g. {@link ConcurrencyLimit#gradient} or {@link ConcurrencyLimit#vegas}). Attempts over the limit wait up to the max wait
+     * (0 to reject them immediately) and then fail with {@link io.github.ravichaturvedi.retrier.concurrency.ConcurrencyLimitExceededException}.
+     * Attempts of the async and flow retries never wait, as they are started on the shared scheduler, and fail right away instead.
+     * @param limit
+     * @param maxWait
+     * @return
+     */
+    public static Option withConcurrencyLimit(ConcurrencyLimit limit, Duration maxWait) {
+        return withConcurrencyLimit(new ConcurrencyLimiter(limit, maxWait));
+    }
+
+    /**
+     * Create an {@link Option} limiting the attempts in flight through the {@link Retrier} using the provided {@link ConcurrencyLimiter}.
+     * @param limiter
+     * @return
+     */
+    public static Option withConcurrencyLimit(ConcurrencyLimiter limiter) {
+        return c -> c.concurrencyLimiter = limiter;
+    }
+
+    /**
+     * Create an {@link Option} to hedge every attempt: if the call has not completed within the delay another call is started
+     * in parallel, up to the max hedges, and the first successful call wins.
+     * Every hedge takes its own bulkhead and concurrency limiter permit (no hedge is started without one), and a failure which
+     * the handler cannot handle fails the attempt right away.
+     * @param delay
+     * @param maxHedges
+     * @return
+     */
+    public static Option withHedging(Duration delay, int maxHedges) {
+        return c -> c.hedging = new Hedging(delay, maxHedges);
+    }
+
+    /**
+     * Create an {@link Option} with the provided {@link Hedging} of every attempt, e.g. hedging after a percentile of the observed latency.
+     * Hedging applies to the blocking retries, an async operation is expected to apply its own.
+     * @param hedging
+     * @return
+     */
+    public static Option withHedging(Hedging hedging) {
+        return c -> c.hedging = hedging;
+    }
+
+    /**
+     * Create an {@link Option} to retry the calls returning a result accepted by the provided predicate, as if they had failed.
+     * Retryable result is subject to the same limits and backoff as an exception and is returned as is once a limit is exceeded,
+     * so no exception gets created for it. The predicate is tested with the result of every call (except the {@link Runner} ones),
+     * so it should accept any result type returned through the retrier (or the retrier be dedicated to the calls of that type);
+     * {@link Retrier#retry(Handler, java.util.concurrent.Callable, Predicate)} takes a predicate typed for a single call instead.
+     * Exception raised by the predicate fails the call without being retried.
+     * @param predicate
+     * @param <T>
+     * @return
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> Option withRetryOnResult(Predicate<? super T> predicate) {
+        return c -> c.resultPredicate = (Predicate<Object>) predicate;
+    }
+
+    /**
+     * Create an {@link Option} to keep the history of the last failed attempts of every retry call, raising
+     * {@link RetriesExhaustedException} with that history (and the last exception as cause) once a limit stops the retries.
+     * Exception rejected by the handler is still raised as is.
+     * @param size max number of failed attempts kept
+     * @return
+     */
+    public static Option withAttemptHistory(int size) {
+        return withAttemptHistory(size, false, 0);
+    }
+
+    /**
+     * Create an {@link Option} to keep the history of the last failed attempts of every retry call, raising
+     * {@link RetriesExhaustedException} with that history once a limit stops the retries.
+     * @param size max number of failed attempts kept
+     * @param stackless whether {@link RetriesExhaustedException} is raised without stack trace
+     * @param maxSuppressed max number of earlier failures attached as suppressed, 0 for none
+     * @return
+     */
+    public static Option withAttemptHistory(int size, boolean stackless, int maxSuppressed) {
+        return c -> {
+            c.attemptHistorySize = size;
+            c.stacklessExhaustion = stackless;
+            c.maxSuppressedFailures = maxSuppressed;
+        };
+    }
+
+    /**
+     * Create an {@link Option} to run the blocking attempts as a {@link java.util.concurrent.ForkJoinPool#managedBlock} when called on
+     * a fork-join worker (e.g. parallel streams or async tasks of the common pool), so the pool compensates with a spare thread
+     * instead of losing the worker. Backoff delay is always waited out that way.
+     * @return
+     */
+    public static Option withManagedBlocking() {
+        return c -> c.managedBlocking = true;
+    }
+
+    /**
+     * Create an {@link Option} with the provided {@link Clock} to measure the elapsed time of the retries (timeout, deadline, listener).
+     * <p>
+     * Circuit breaker and retry budget created by the options here follow the clock, whatever the order of the options.
+     * The provided ones can be shared by many retriers, so they keep their own clock (e.g. {@link CircuitBreaker} and
+     * {@link AdaptiveBackoff} constructors taking a {@link Clock}), as do the adaptive backoff and hedging created here.
+     * @param clock
+     * @return
+     */
+    public static Option withClock(Clock clock) {
+        return c -> c.clock = clock;
+    }
+
+    /**
+     * Create an {@link Option} with the shared {@link CoarseClock}, for very high call rates which can do with elapsed times
+     * approximated to {@link io.github.ravichaturvedi.retrier.helper.Schedulers#COARSE_CLOCK_PRECISION_MILLIS} milliseconds.
+     * @return
+     */
+    public static Option withCoarseClock() {
+        return c -> c.clock = defaultCoarseClock();
+    }
+
+    /**
+     * Create an {@link Option} with the provided {@link Sleeper} to wait out the backoff delay of the blocking retries.
+     * @param sleeper
+     * @return
+     */
+    public static Option withSleeper(Sleeper sleeper) {
+        return c -> c.sleeper = sleeper;
+    }
+
+    /**
+     * Create an {@link Option} running the blocking retries in the virtual time of the provided {@link VirtualClock}, so the
+     * backoff delays and timeouts take no real time, e.g. in tests. Async retries still schedule their delays on the scheduler.
+     * @param clock
+     * @return
+     */
+    public static Option withVirtualClock(VirtualClock clock) {
+        return c -> {
+            c.clock = clock;
+            c.sleeper = clock;
+        };
+    }
+
     /**
      * Create an {@link Option} with the provided {@link Tracer} to trace the retry execution.
      * @param tracer
@@ -81,4 +411,50 @@ public class Retriers {
     public static Option withTrace(Tracer tracer) {
         return c -> c.tracer = tracer;
     }
+
+    /**
+     * Create an {@link Option} with the provided {@link ScheduledExecutorService} to schedule the async retries after backoff delay.
+     * Next attempt is started on the scheduler thread, so the async operation should not block while creating its stage.
+     * @param scheduler
+     * @return
+     */
+    public static Option withScheduler(ScheduledExecutorService scheduler) {
+        return c -> c.scheduler = scheduler;
+    }
+
+    /**
+     * Create an {@link Option} to schedule the async retries on the shared {@link HashedWheelTimer}, which is cheaper than
+     * the default scheduler when a very large number of retries are waiting for their backoff delay at the same time.
+     * @return
+     */
+    public static Option withHashedWheelTimer() {
+        return c -> c.scheduler = defaultWheelTimer();
+    }
+
+    /**
+     * Create an {@link Option} with the provided {@link RetryListener}s to be notified of the retry execution events.
+     * Listeners are added to the ones already configured.
+     * @param listeners
+     * @return
+     */
+    public static Option withListener(RetryListener... listeners) {
+        RetryListener listener = RetryListeners.of(listeners);
+        return c -> c.listener = RetryListeners.combine(c.listener, listener);
+    }
+
+    /**
+     * Create an {@link Option} to keep the counters and latency histograms of the retries in the provided {@link RetryMetrics}.
+     * Metrics are registered as MBean with the platform MBeanServer when the {@link Retrier} is created, so their name should be unique
+     * (creation fails if other metrics are registered with the same name), and they should be unregistered with
+     * {@link RetryMetrics#unregister()} once the retrier is not used anymore.
+     * @param metrics
+     * @return
+     */
+    public static Option withMetrics(RetryMetrics metrics) {
+        ensureNotNull(metrics, "Metrics cannot be null.");
+        return c -> {
+            c.listener = RetryListeners.combine(c.listener, metrics);
+            c.metrics = metrics;
+        };
+    }
 }
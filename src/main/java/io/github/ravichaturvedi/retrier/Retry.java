@@ -16,13 +16,21 @@
 package io.github.ravichaturvedi.retrier;
 
 
+import io.github.ravichaturvedi.retrier.flow.Flow;
 import io.github.ravichaturvedi.retrier.handler.exception.CompositeHandler;
 import io.github.ravichaturvedi.retrier.handler.exception.ExceptionRunnerHandler;
 import io.github.ravichaturvedi.retrier.handler.exception.ExceptionsHandler;
 
 import java.time.Duration;
 import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 import static io.github.ravichaturvedi.retrier.Retriers.*;
 
@@ -103,6 +111,177 @@ public class Retry {
         RETRIER.retry(runner);
     }
 
+    /**
+     * Retry the {@link RetryCallable} with the provided {@link Handler}, passing the {@link RetryContext} of the attempt to it,
+     * using the default {@link Retrier}.
+     * @param handler
+     * @param callable
+     * @param <T>
+     * @return
+     * @throws Exception
+     */
+    public static <T> T retry(Handler handler, RetryCallable<T> callable) throws Exception {
+        return RETRIER.retry(handler, callable);
+    }
+
+    /**
+     * Retry the {@link RetryCallable} on all {@link Exception}s, passing the {@link RetryContext} of the attempt to it,
+     * using the default {@link Retrier}.
+     * @param callable
+     * @param <T>
+     * @return
+     * @throws Exception
+     */
+    public static <T> T retry(RetryCallable<T> callable) throws Exception {
+        return RETRIER.retry(callable);
+    }
+
+    /**
+     * Retry the {@link Callable} with the provided {@link Handler}, sharing a single retry with the concurrent calls of the same key,
+     * using the default {@link Retrier}.
+     * @param key
+     * @param handler
+     * @param callable
+     * @param <T>
+     * @return
+     * @throws Exception
+     */
+    public static <T> T retry(Object key, Handler handler, Callable<T> callable) throws Exception {
+        return RETRIER.retry(key, handler, callable);
+    }
+
+    /**
+     * Retry the {@link Callable} on all {@link Exception}s, sharing a single retry with the concurrent calls of the same key,
+     * using the default {@link Retrier}.
+     * @param key
+     * @param callable
+     * @param <T>
+     * @return
+     * @throws Exception
+     */
+    public static <T> T retry(Object key, Callable<T> callable) throws Exception {
+        return RETRIER.retry(key, callable);
+    }
+
+    /**
+     * Retry the batch of {@link Callable}s with the provided {@link Handler}, running at most `parallelism` of them at once,
+     * using the default {@link Retrier}.
+     * @param handler
+     * @param callables
+     * @param parallelism
+     * @param <T>
+     * @return
+     * @throws InterruptedException
+     */
+    public static <T> List<BatchResult<T>> retryAll(Handler handler, Collection<? extends Callable<T>> callables, int parallelism) throws InterruptedException {
+        return RETRIER.retryAll(handler, callables, parallelism);
+    }
+
+    /**
+     * Retry the batch of {@link Callable}s on all {@link Exception}s, running at most `parallelism` of them at once,
+     * using the default {@link Retrier}.
+     * @param callables
+     * @param parallelism
+     * @param <T>
+     * @return
+     * @throws InterruptedException
+     */
+    public static <T> List<BatchResult<T>> retryAll(Collection<? extends Callable<T>> callables, int parallelism) throws InterruptedException {
+        return RETRIER.retryAll(callables, parallelism);
+    }
+
+    /**
+     * Return a {@link Flow.Publisher} of the stream provided by the publisher function, resubscribing to it with the provided {@link Handler}
+     * from the position of the last element delivered downstream, using the default {@link Retrier}.
+     * @param handler
+     * @param initialPosition
+     * @param publisherFunction
+     * @param positionFunction
+     * @param <T>
+     * @param <P>
+     * @return
+     */
+    public static <T, P> Flow.Publisher<T> retryFlow(Handler handler, P initialPosition, Function<? super P, ? extends Flow.Publisher<T>> publisherFunction,
+                                                     Function<? super T, ? extends P> positionFunction) {
+        return RETRIER.retryFlow(handler, initialPosition, publisherFunction, positionFunction);
+    }
+
+    /**
+     * Return a {@link Flow.Publisher} of the stream provided by the publisher function, resubscribing to it on all {@link Exception}s
+     * from the position of the last element delivered downstream, using the default {@link Retrier}.
+     * @param initialPosition
+     * @param publisherFunction
+     * @param positionFunction
+     * @param <T>
+     * @param <P>
+     * @return
+     */
+    public static <T, P> Flow.Publisher<T> retryFlow(P initialPosition, Function<? super P, ? extends Flow.Publisher<T>> publisherFunction,
+                                                     Function<? super T, ? extends P> positionFunction) {
+        return RETRIER.retryFlow(initialPosition, publisherFunction, positionFunction);
+    }
+
+    /**
+     * Apply the {@link RetryFunction} to every element of the {@link Stream} in parallel on a fork-join pool, retrying each element
+     * on its own with the provided {@link Handler}, using the default {@link Retrier}.
+     * @param handler
+     * @param stream
+     * @param function
+     * @param <T>
+     * @param <R>
+     * @return
+     * @throws InterruptedException
+     */
+    public static <T, R> ParallelResult<T, R> retryEach(Handler handler, Stream<T> stream, RetryFunction<? super T, ? extends R> function) throws InterruptedException {
+        return RETRIER.retryEach(handler, stream, function);
+    }
+
+    /**
+     * Apply the {@link RetryFunction} to every element of the {@link Stream} in parallel on a fork-join pool, retrying each element
+     * on all {@link Exception}s, using the default {@link Retrier}.
+     * @param stream
+     * @param function
+     * @param <T>
+     * @param <R>
+     * @return
+     * @throws InterruptedException
+     */
+    public static <T, R> ParallelResult<T, R> retryEach(Stream<T> stream, RetryFunction<? super T, ? extends R> function) throws InterruptedException {
+        return RETRIER.retryEach(stream, function);
+    }
+
+    /**
+     * Retry the async operation provided by the {@link Supplier} with the provided {@link Handler}, using the default {@link Retrier}.
+     * @param handler
+     * @param supplier
+     * @param <T>
+     * @return
+     */
+    public static <T> CompletableFuture<T> retryAsync(Handler handler, Supplier<? extends CompletionStage<T>> supplier) {
+        return RETRIER.retryAsync(handler, supplier);
+    }
+
+    /**
+     * Retry the async operation provided by the {@link Supplier} with the provided {@link Handler}, using the default {@link Retrier}.
+     * @param supplier
+     * @param handler
+     * @param <T>
+     * @return
+     */
+    public static <T> CompletableFuture<T> retryAsync(Supplier<? extends CompletionStage<T>> supplier, Handler handler) {
+        return RETRIER.retryAsync(supplier, handler);
+    }
+
+    /**
+     * Retry the async operation provided by the {@link Supplier} on all {@link Exception}s, using the default {@link Retrier}.
+     * @param supplier
+     * @param <T>
+     * @return
+     */
+    public static <T> CompletableFuture<T> retryAsync(Supplier<? extends CompletionStage<T>> supplier) {
+        return RETRIER.retryAsync(supplier);
+    }
+
     /**
      * Create a handler to aggregate and handle using the provided handler.
      * It is generally used when need to pass multiple handler in first argument of retry method.
@@ -0,0 +1,34 @@
+/*
+ * Copyright 2017 The Retrier AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.retrier;
+
+
+/**
+ * {@link RetryCallable} specifies the semantics of the piece of code which returns a value computed using the {@link RetryContext}
+ * of the attempt, and may throw {@link Exception}.
+ */
+@FunctionalInterface
+public interface RetryCallable<T> {
+
+    /**
+     * Call some piece of code which returns a value but can throw exception.
+     *
+     * @param context
+     * @return
+     * @throws Exception
+     */
+    T call(RetryContext context) throws Exception;
+}
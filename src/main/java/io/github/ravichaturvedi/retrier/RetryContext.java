@@ -0,0 +1,57 @@
+/*
+ * Copyright 2017 The Retrier AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.retrier;
+
+
+/**
+ * {@link RetryContext} exposes the state of a retry call to the retried operation and to the {@link Handler}s,
+ * e.g. to fit the socket/RPC timeout of an attempt into the remaining time.
+ * <p>
+ * Context is only valid during the retry call, and is not meant to be shared with other threads.
+ */
+public interface RetryContext {
+
+    /**
+     * Returns the number of the current attempt, starting from 1.
+     * @return
+     */
+    int getAttempt();
+
+    /**
+     * Returns the time in nanoseconds elapsed since the first attempt started.
+     * @return
+     */
+    long getElapsedTimeInNanos();
+
+    /**
+     * Returns the time in nanoseconds remaining until the timeout or deadline (whichever comes first),
+     * or {@link Long#MAX_VALUE} if none is configured.
+     * @return
+     */
+    long getRemainingTimeInNanos();
+
+    /**
+     * Returns the exception of the last failed attempt, or null if no attempt has failed yet.
+     * @return
+     */
+    Exception getLastFailure();
+
+    /**
+     * Returns the {@link Tracer} of the retrier, or null if tracing is not configured.
+     * @return
+     */
+    Tracer getTracer();
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2017 The Retrier AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.retrier;
+
+
+/**
+ * {@link RetryListener} defines the callbacks for structured events of the {@link Retrier} execution.
+ * <p>
+ * Events carry primitive fields only, so nothing is formatted or allocated for them. Callbacks are invoked on the thread
+ * running the retry and should neither block nor throw. No dispatch happens at all if no listener is configured.
+ */
+public interface RetryListener {
+
+    /**
+     * {@link Limit} is the limit of the {@link Retrier} which stopped the retries.
+     */
+    enum Limit {
+        TIMEOUT,
+        RETRY_COUNT,
+        RETRY_BUDGET,
+        CIRCUIT_OPEN,
+        CONCURRENCY_LIMIT,
+        BULKHEAD_FULL
+    }
+
+    /**
+     * Attempt is about to be started, before asking the bulkhead, concurrency limiter and circuit breaker for the permission,
+     * so an attempt rejected by them is started as well.
+     * @param attempt number of the attempt, starting with 1
+     */
+    default void onAttemptStarted(int attempt) {
+    }
+
+    /**
+     * Attempt failed with the exception of provided class, or returned a result accepted by the result predicate.
+     * @param attempt
+     * @param elapsedTimeInNanos time elapsed since the start of the first attempt
+     * @param attemptTimeInNanos time taken by this attempt
+     * @param exceptionClass null if the attempt returned a retryable result
+     */
+    default void onAttemptFailed(int attempt, long elapsedTimeInNanos, long attemptTimeInNanos, Class<? extends Exception> exceptionClass) {
+    }
+
+    /**
+     * Backoff delay is going to be waited out before the next attempt.
+     * @param attempt number of the failed attempt
+     * @param delayInMillisec
+     */
+    default void onBackoff(int attempt, long delayInMillisec) {
+    }
+
+    /**
+     * Retries are stopped as the provided limit is exceeded.
+     * @param attempt number of the last attempt
+     * @param elapsedTimeInNanos
+     * @param limit
+     */
+    default void onLimitExceeded(int attempt, long elapsedTimeInNanos, Limit limit) {
+    }
+
+    /**
+     * Retries are stopped as the attempt is rejected by the bulkhead, concurrency limiter or circuit breaker before it ran,
+     * which defaults to {@link #onLimitExceeded}.
+     * @param attempt number of the rejected attempt
+     * @param elapsedTimeInNanos
+     * @param limit
+     */
+    default void onRejected(int attempt, long elapsedTimeInNanos, Limit limit) {
+        onLimitExceeded(attempt, elapsedTimeInNanos, limit);
+    }
+
+    /**
+     * Retries are stopped as the attempt failed with an exception which is not retried (cannot be handled by the handler,
+     * or raised by the result predicate), and is raised as is.
+     * @param attempt
+     * @param elapsedTimeInNanos
+     * @param exceptionClass
+     */
+    default void onFailure(int attempt, long elapsedTimeInNanos, Class<? extends Exception> exceptionClass) {
+    }
+
+    /**
+     * Attempt succeeded.
+     * @param attempt
+     * @param elapsedTimeInNanos
+     * @param attemptTimeInNanos
+     */
+    default void onSuccess(int attempt, long elapsedTimeInNanos, long attemptTimeInNanos) {
+    }
+}
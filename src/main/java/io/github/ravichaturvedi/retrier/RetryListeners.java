@@ -0,0 +1,115 @@
+/*
+ * Copyright 2017 The Retrier AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.retrier;
+
+import java.util.Arrays;
+
+import static io.github.ravichaturvedi.retrier.helper.Ensurer.ensureNotNull;
+
+/**
+ * {@link RetryListeners} is a {@link RetryListener} which dispatches the events to the provided listeners in order.
+ */
+class RetryListeners implements RetryListener {
+
+    private final RetryListener[] listeners;
+
+    private RetryListeners(RetryListener... listeners) {
+        this.listeners = listeners;
+    }
+
+    /**
+     * Returns the listener dispatching to both the provided listeners, any of them can be null.
+     * @param first
+     * @param second
+     * @return
+     */
+    static RetryListener combine(RetryListener first, RetryListener second) {
+        if (first == null) {
+            return second;
+        }
+        if (second == null) {
+            return first;
+        }
+
+        RetryListener[] firsts = first instanceof RetryListeners ? ((RetryListeners) first).listeners : new RetryListener[]{first};
+        RetryListener[] listeners = Arrays.copyOf(firsts, firsts.length + 1);
+        listeners[firsts.length] = second;
+        return new RetryListeners(listeners);
+    }
+
+    /**
+     * Returns the listener dispatching to all the provided listeners.
+     * @param listeners
+     * @return
+     */
+    static RetryListener of(RetryListener... listeners) {
+        RetryListener result = null;
+        for (RetryListener listener : listeners) {
+            ensureNotNull(listener, "Listener cannot be null.");
+            result = combine(result, listener);
+        }
+        return result;
+    }
+
+    @Override
+    public void onAttemptStarted(int attempt) {
+        for (RetryListener listener : listeners) {
+            listener.onAttemptStarted(attempt);
+        }
+    }
+
+    @Override
+    public void onAttemptFailed(int attempt, long elapsedTimeInNanos, long attemptTimeInNanos, Class<? extends Exception> exceptionClass) {
+        for (RetryListener listener : listeners) {
+            listener.onAttemptFailed(attempt, elapsedTimeInNanos, attemptTimeInNanos, exceptionClass);
+        }
+    }
+
+    @Override
+    public void onBackoff(int attempt, long delayInMillisec) {
+        for (RetryListener listener : listeners) {
+            listener.onBackoff(attempt, delayInMillisec);
+        }
+    }
+
+    @Override
+    public void onLimitExceeded(int attempt, long elapsedTimeInNanos, Limit limit) {
+        for (RetryListener listener : listeners) {
+            listener.onLimitExceeded(attempt, elapsedTimeInNanos, limit);
+        }
+    }
+
+    @Override
+    public void onRejected(int attempt, long elapsedTimeInNanos, Limit limit) {
+        for (RetryListener listener : listeners) {
+            listener.onRejected(attempt, elapsedTimeInNanos, limit);
+        }
+    }
+
+    @Override
+    public void onFailure(int attempt, long elapsedTimeInNanos, Class<? extends Exception> exceptionClass) {
+        for (RetryListener listener : listeners) {
+            listener.onFailure(attempt, elapsedTimeInNanos, exceptionClass);
+        }
+    }
+
+    @Override
+    public void onSuccess(int attempt, long elapsedTimeInNanos, long attemptTimeInNanos) {
+        for (RetryListener listener : listeners) {
+            listener.onSuccess(attempt, elapsedTimeInNanos, attemptTimeInNanos);
+        }
+    }
+}
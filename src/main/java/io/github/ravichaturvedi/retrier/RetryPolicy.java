@@ -0,0 +1,206 @@
+/*
+ * Copyright 2017 The Retrier AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.retrier;
+
+
+import java.time.Duration;
+import java.util.Arrays;
+
+import static io.github.ravichaturvedi.retrier.helper.Ensurer.ensure;
+import static io.github.ravichaturvedi.retrier.helper.Ensurer.ensureNotNull;
+
+/**
+ * {@link RetryPolicy} is the immutable value of the limits and exponential backoff of a {@link Config}, built once per {@link Retrier}.
+ * <p>
+ * Durations are kept in nanoseconds (0 if not configured), and the exponential backoff delays are precomputed into a table
+ * saturating at the max delay (or at {@link Long#MAX_VALUE} without overflowing), so the delay of any attempt is an array lookup
+ * and retry counts in the hundreds are safe. It is safe to share between threads, and compared by value.
+ */
+public final class RetryPolicy {
+
+    // Max number of attempts, 0 if not limited.
+    private final int maxRetries;
+
+    private final long timeoutInNanos;
+    private final long attemptTimeoutInNanos;
+    private final long deadlineInNanos;
+
+    // Backoff delay after every failed attempt (the first one at index 0), empty if no exponential backoff is configured.
+    private final long[] delaysInNanos;
+
+    // Index of the last delay of the table, used by all the later attempts, -1 if the table is empty.
+    private final int cap;
+
+    public RetryPolicy(Config config) {
+        ensureNotNull(config, "Config cannot be null.");
+
+        if (config.timeoutDuration != null) {
+            ensure(config.timeoutDuration.toMillis() > 0, "Timeout should be positive.");
+        }
+        if (config.attemptTimeoutDuration != null) {
+            ensure(config.attemptTimeoutDuration.toNanos() > 0, "Attempt timeout should be positive.");
+        }
+        if (config.deadlineDuration != null) {
+            ensure(config.deadlineDuration.toNanos() > 0, "Deadline should be positive.");
+        }
+        if (config.maxRetries != null) {
+            ensure(config.maxRetries > 0, "Max retry count should be positive.");
+        }
+        if (config.expBackoffDuration != null) {
+            ensure(config.expBackoffDuration.toMillis() > 0, "Initial delay should be positive.");
+            if (config.expBackoffMaxDuration != null) {
+                ensure(config.expBackoffMaxDuration.toMillis() > 0, "Max delay should be positive.");
+            }
+        }
+
+        this.maxRetries = config.maxRetries != null ? config.maxRetries : 0;
+        this.timeoutInNanos = config.timeoutDuration != null ? config.timeoutDuration.toNanos() : 0;
+        this.attemptTimeoutInNanos = config.attemptTimeoutDuration != null ? config.attemptTimeoutDuration.toNanos() : 0;
+        this.deadlineInNanos = config.deadlineDuration != null ? config.deadlineDuration.toNanos() : 0;
+        this.delaysInNanos = config.expBackoffDuration != null ? delayTable(config.expBackoffDuration, config.expBackoffMaxDuration) : new long[0];
+        this.cap = delaysInNanos.length - 1;
+    }
+
+    // Doubling delays from the initial one, up to the max delay or until the next one would overflow.
+    private static long[] delayTable(Duration initialDelay, Duration maxDelay) {
+        long initialDelayInNanos = initialDelay.toNanos();
+        long maxDelayInNanos = maxDelay != null ? maxDelay.toNanos() : Long.MAX_VALUE;
+
+        long[] delays = new long[Long.numberOfLeadingZeros(initialDelayInNanos) + 1];
+        int length = 0;
+        long delay = initialDelayInNanos;
+        while (true) {
+            if (delay >= maxDelayInNanos) {
+                delays[length++] = maxDelayInNanos;
+                break;
+            }
+            delays[length++] = delay;
+            if (length == delays.length - 1) {
+                // Doubling would overflow, so the delay saturates.
+                delays[length++] = maxDelayInNanos;
+                break;
+            }
+            delay <<= 1;
+        }
+        return Arrays.copyOf(delays, length);
+    }
+
+    /**
+     * Returns the max number of attempts, 0 if not limited.
+     * @return
+     */
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    /**
+     * Returns the timeout of the whole retry in nanoseconds, 0 if not configured.
+     * @return
+     */
+    public long getTimeoutInNanos() {
+        return timeoutInNanos;
+    }
+
+    /**
+     * Returns the max duration of an attempt in nanoseconds, 0 if not configured.
+     * @return
+     */
+    public long getAttemptTimeoutInNanos() {
+        return attemptTimeoutInNanos;
+    }
+
+    /**
+     * Returns the deadline of the whole retry in nanoseconds, 0 if not configured.
+     * @return
+     */
+    public long getDeadlineInNanos() {
+        return deadlineInNanos;
+    }
+
+    /**
+     * Returns whether the exponential backoff is configured.
+     * @return
+     */
+    public boolean hasBackoff() {
+        return cap >= 0;
+    }
+
+    /**
+     * Returns the index of the last delay of the table, used by all the later attempts, -1 if no exponential backoff is configured.
+     * @return
+     */
+    public int getCap() {
+        return cap;
+    }
+
+    /**
+     * Returns the exponential backoff delay in nanoseconds after the provided failed attempt (starting with 1), 0 if not configured.
+     * @param attempt
+     * @return
+     */
+    public long getDelayInNanos(int attempt) {
+        if (cap < 0) {
+            return 0;
+        }
+        return delaysInNanos[Math.min(Math.max(attempt - 1, 0), cap)];
+    }
+
+    /**
+     * Returns a copy of the table of the exponential backoff delays in nanoseconds.
+     * @return
+     */
+    public long[] getDelaysInNanos() {
+        return delaysInNanos.clone();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof RetryPolicy)) {
+            return false;
+        }
+        RetryPolicy that = (RetryPolicy) o;
+        return maxRetries == that.maxRetries &&
+                timeoutInNanos == that.timeoutInNanos &&
+                attemptTimeoutInNanos == that.attemptTimeoutInNanos &&
+                deadlineInNanos == that.deadlineInNanos &&
+                Arrays.equals(delaysInNanos, that.delaysInNanos);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = maxRetries;
+        result = 31 * result + Long.hashCode(timeoutInNanos);
+        result = 31 * result + Long.hashCode(attemptTimeoutInNanos);
+        result = 31 * result + Long.hashCode(deadlineInNanos);
+        result = 31 * result + Arrays.hashCode(delaysInNanos);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "RetryPolicy{" +
+                "maxRetries=" + maxRetries +
+                ", timeout=" + Duration.ofNanos(timeoutInNanos) +
+                ", attemptTimeout=" + Duration.ofNanos(attemptTimeoutInNanos) +
+                ", deadline=" + Duration.ofNanos(deadlineInNanos) +
+                ", delays=" + Arrays.toString(delaysInNanos) +
+                ", cap=" + cap +
+                '}';
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2017 The Retrier AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.retrier;
+
+
+import io.github.ravichaturvedi.retrier.helper.ManagedBlocking;
+
+/**
+ * {@link Sleeper} defines the semantics of waiting out the backoff delay between the retries.
+ */
+@FunctionalInterface
+public interface Sleeper {
+
+    // Sleeper blocking the calling thread for the backoff delay, as a managed block on a fork-join worker so the pool compensates for it.
+    Sleeper THREAD = ManagedBlocking::sleep;
+
+    /**
+     * Wait for the provided duration before the next retry.
+     * @param durationInMillisec
+     * @throws InterruptedException
+     */
+    void sleep(long durationInMillisec) throws InterruptedException;
+}
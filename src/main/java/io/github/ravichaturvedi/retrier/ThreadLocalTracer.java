@@ -18,7 +18,12 @@ package io.github.ravichaturvedi.retrier;
 
 /**
  * {@link ThreadLocalTracer} is keeping track of thread specific tracers and have trace method to delegate the call to {@link Thread} specific {@link Tracer}.
+ *
+ * @deprecated The retrier doesn't set the thread tracer anymore, as the attempts may run on other threads (async, batch, hedged),
+ * and passes the {@link Tracer} of the retry through {@link RetryContext#getTracer()} instead.
+ * It is only read by the handlers called without a {@link RetryContext}, i.e. through {@link Handler#handleException(Exception)}.
  */
+@Deprecated
 public class ThreadLocalTracer {
 
     /**
@@ -41,6 +46,14 @@ public class ThreadLocalTracer {
         tracerThreadLocal.remove();
     }
 
+    /**
+     * Returns the {@link Tracer} associated with the current {@link Thread}, null if there is none.
+     * @return
+     */
+    public static Tracer getTracer() {
+        return tracerThreadLocal.get();
+    }
+
     /**
      * Trace the given msg using the {@link ThreadLocal<Tracer>}
      * @param msg
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2017 The Retrier AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.retrier.backoff;
+
+
+import io.github.ravichaturvedi.retrier.BackoffStrategy;
+import io.github.ravichaturvedi.retrier.Clock;
+import io.github.ravichaturvedi.retrier.RetryListener;
+import io.github.ravichaturvedi.retrier.helper.SlidingWindow;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static io.github.ravichaturvedi.retrier.helper.Ensurer.ensure;
+import static io.github.ravichaturvedi.retrier.helper.Ensurer.ensureNotNull;
+
+/**
+ * {@link AdaptiveBackoff} is a {@link BackoffStrategy} whose base delay is shared by all the calls of a retrier, and adapted
+ * to the outcome of their attempts (AIMD): doubled while the failure rate is over the threshold, and decreased by a fixed step
+ * once the attempts succeed again. So all the callers back off together, and come back together when the dependency recovers.
+ * <p>
+ * Delay of a retry grows exponentially from the base delay with the attempt number, with equal jitter, up to the max delay.
+ * <p>
+ * Outcomes are observed as a {@link RetryListener} over a sliding window of {@link #WINDOW_MILLIS} milliseconds,
+ * and the base delay is adjusted at most once per {@link #ADJUSTMENT_INTERVAL_MILLIS} milliseconds by a single CAS,
+ * so it can be shared by many threads without a lock.
+ */
+public final class AdaptiveBackoff implements BackoffStrategy, RetryListener {
+
+    // Duration of the window the outcomes are accounted for.
+    public static final int WINDOW_MILLIS = 1000;
+
+    // Min duration between two adjustments of the base delay.
+    public static final int ADJUSTMENT_INTERVAL_MILLIS = 100;
+
+    // Min number of outcomes in the window to adjust the base delay.
+    private static final int MIN_OUTCOMES = 10;
+
+    // Counters of the window.
+    private static final int SUCCESSES = 0;
+    private static final int FAILURES = 1;
+
+    private final long minDelayInMillisec;
+    private final long maxDelayInMillisec;
+    private final long decrementInMillisec;
+    private final double failureRateThreshold;
+
+    private final SlidingWindow window;
+
+    // Base delay shared by all the calls.
+    private final AtomicLong baseDelayInMillisec;
+
+    // Clock timing the adjustments and the sliding window, which should be the clock of the retriers using the backoff.
+    private final Clock clock;
+
+    // Time of the last adjustment of the base delay.
+    private final AtomicLong adjustmentTimeInNanos;
+
+    /**
+     * Creates the {@link AdaptiveBackoff} decreasing the base delay by the min delay once the failure rate drops below 50%.
+     * @param minDelayInMillisec
+     * @param maxDelayInMillisec
+     */
+    public AdaptiveBackoff(long minDelayInMillisec, long maxDelayInMillisec) {
+        this(minDelayInMillisec, maxDelayInMillisec, minDelayInMillisec, 0.5);
+    }
+
+    public AdaptiveBackoff(long minDelayInMillisec, long maxDelayInMillisec, long decrementInMillisec, double failureRateThreshold) {
+        this(minDelayInMillisec, maxDelayInMillisec, decrementInMillisec, failureRateThreshold, Clock.SYSTEM);
+    }
+
+    public AdaptiveBackoff(long minDelayInMillisec, long maxDelayInMillisec, long decrementInMillisec, double failureRateThreshold,
+                           Clock clock) {
+        ensure(minDelayInMillisec > 0, "Min delay should be positive.");
+        ensure(maxDelayInMillisec >= minDelayInMillisec, "Max delay should not be less than min delay.");
+        ensure(decrementInMillisec > 0, "Decrement should be positive.");
+        ensure(failureRateThreshold > 0 && failureRateThreshold <= 1, "Failure rate threshold should be between 0 and 1.");
+        ensureNotNull(clock, "Clock cannot be null.");
+        this.minDelayInMillisec = minDelayInMillisec;
+        this.maxDelayInMillisec = maxDelayInMillisec;
+        this.decrementInMillisec = decrementInMillisec;
+        this.failureRateThreshold = failureRateThreshold;
+        this.baseDelayInMillisec = new AtomicLong(minDelayInMillisec);
+        this.clock = clock;
+        this.adjustmentTimeInNanos = new AtomicLong(clock.nanoTime());
+
+        int sliceCount = WINDOW_MILLIS / ADJUSTMENT_INTERVAL_MILLIS;
+        this.window = new SlidingWindow(sliceCount, TimeUnit.MILLISECONDS.toNanos(ADJUSTMENT_INTERVAL_MILLIS), 2, clock);
+    }
+
+    @Override
+    public long delay(int attempt, long previousDelayInMillisec) {
+        long delay = ExponentialBackoff.delay(baseDelayInMillisec.get(), maxDelayInMillisec, attempt);
+        return Jitter.between(delay / 2, delay);
+    }
+
+    @Override
+    public void onAttemptFailed(int attempt, long elapsedTimeInNanos, long attemptTimeInNanos, Class<? extends Exception> exceptionClass) {
+        window.increment(FAILURES);
+        adjust();
+    }
+
+    @Override
+    public void onSuccess(int attempt, long elapsedTimeInNanos, long attemptTimeInNanos) {
+        window.increment(SUCCESSES);
+        adjust();
+    }
+
+    /**
+     * Returns the current base delay in milliseconds.
+     * @return
+     */
+    public long getBaseDelayInMillisec() {
+        return baseDelayInMillisec.get();
+    }
+
+    private void adjust() {
+        long now = clock.nanoTime();
+        long adjustmentTime = adjustmentTimeInNanos.get();
+        if (now - adjustmentTime < TimeUnit.MILLISECONDS.toNanos(ADJUSTMENT_INTERVAL_MILLIS)) {
+            return;
+        }
+
+        long failures = window.sum(FAILURES);
+        long outcomes = window.sum(SUCCESSES) + failures;
+        // Only one of the threads racing for the interval adjusts the delay.
+        if (outcomes < MIN_OUTCOMES || !adjustmentTimeInNanos.compareAndSet(adjustmentTime, now)) {
+            return;
+        }
+
+        long delay = baseDelayInMillisec.get();
+        if (failures >= failureRateThreshold * outcomes) {
+            delay = delay > maxDelayInMillisec / 2 ? maxDelayInMillisec : delay * 2;
+        } else {
+            delay = Math.max(delay - decrementInMillisec, minDelayInMillisec);
+        }
+        baseDelayInMillisec.set(delay);
+    }
+
+    @Override
+    public String toString() {
+        return "AdaptiveBackoff{" +
+                "minDelayInMillisec=" + minDelayInMillisec +
+                ", maxDelayInMillisec=" + maxDelayInMillisec +
+                ", decrementInMillisec=" + decrementInMillisec +
+                ", failureRateThreshold=" + failureRateThreshold +
+                ", baseDelayInMillisec=" + baseDelayInMillisec.get() +
+                '}';
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2017 The Retrier AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.retrier.backoff;
+
+
+import io.github.ravichaturvedi.retrier.BackoffStrategy;
+
+import static io.github.ravichaturvedi.retrier.helper.Ensurer.ensure;
+
+/**
+ * {@link DecorrelatedJitterBackoff} is a {@link BackoffStrategy} waiting a random delay between the initial delay
+ * and thrice the previous delay, up to the max delay. Delay grows with the previous delay rather than with the attempt number.
+ */
+public final class DecorrelatedJitterBackoff implements BackoffStrategy {
+
+    private final long initialDelayInMillisec;
+    private final long maxDelayInMillisec;
+
+    public DecorrelatedJitterBackoff(long initialDelayInMillisec, long maxDelayInMillisec) {
+        ensure(initialDelayInMillisec > 0, "Initial delay should be positive.");
+        ensure(maxDelayInMillisec >= initialDelayInMillisec, "Max delay should not be less than initial delay.");
+        this.initialDelayInMillisec = initialDelayInMillisec;
+        this.maxDelayInMillisec = maxDelayInMillisec;
+    }
+
+    @Override
+    public long delay(int attempt, long previousDelayInMillisec) {
+        long previous = Math.max(previousDelayInMillisec, initialDelayInMillisec);
+        long upper = previous > maxDelayInMillisec / 3 ? maxDelayInMillisec : previous * 3;
+        return Math.min(Jitter.between(initialDelayInMillisec, upper), maxDelayInMillisec);
+    }
+
+    @Override
+    public String toString() {
+        return "DecorrelatedJitterBackoff{" +
+                "initialDelayInMillisec=" + initialDelayInMillisec +
+                ", maxDelayInMillisec=" + maxDelayInMillisec +
+                '}';
+    }
+}
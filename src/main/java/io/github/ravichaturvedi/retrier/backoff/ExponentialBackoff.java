@@ -0,0 +1,65 @@
+/*
+ * Copyright 2017 The Retrier AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.retrier.backoff;
+
+
+import io.github.ravichaturvedi.retrier.BackoffStrategy;
+
+import static io.github.ravichaturvedi.retrier.helper.Ensurer.ensure;
+
+/**
+ * {@link ExponentialBackoff} is a {@link BackoffStrategy} doubling the delay after every retry, up to the max delay.
+ */
+public final class ExponentialBackoff implements BackoffStrategy {
+
+    private final long initialDelayInMillisec;
+    private final long maxDelayInMillisec;
+
+    public ExponentialBackoff(long initialDelayInMillisec, long maxDelayInMillisec) {
+        ensure(initialDelayInMillisec > 0, "Initial delay should be positive.");
+        ensure(maxDelayInMillisec > 0, "Max delay should be positive.");
+        this.initialDelayInMillisec = initialDelayInMillisec;
+        this.maxDelayInMillisec = maxDelayInMillisec;
+    }
+
+    @Override
+    public long delay(int attempt, long previousDelayInMillisec) {
+        return delay(initialDelayInMillisec, maxDelayInMillisec, attempt);
+    }
+
+    /**
+     * Returns `initialDelay * 2^(attempt - 1)` capped to the max delay, without overflowing.
+     * @param initialDelayInMillisec
+     * @param maxDelayInMillisec
+     * @param attempt
+     * @return
+     */
+    static long delay(long initialDelayInMillisec, long maxDelayInMillisec, int attempt) {
+        int shift = attempt - 1;
+        if (shift >= Long.numberOfLeadingZeros(initialDelayInMillisec)) {
+            return maxDelayInMillisec;
+        }
+        return Math.min(initialDelayInMillisec << shift, maxDelayInMillisec);
+    }
+
+    @Override
+    public String toString() {
+        return "ExponentialBackoff{" +
+                "initialDelayInMillisec=" + initialDelayInMillisec +
+                ", maxDelayInMillisec=" + maxDelayInMillisec +
+                '}';
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2017 The Retrier AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.retrier.backoff;
+
+
+import io.github.ravichaturvedi.retrier.BackoffStrategy;
+
+import static io.github.ravichaturvedi.retrier.helper.Ensurer.ensure;
+
+/**
+ * {@link FixedBackoff} is a {@link BackoffStrategy} waiting the same delay before every retry.
+ */
+public final class FixedBackoff implements BackoffStrategy {
+
+    private final long delayInMillisec;
+
+    public FixedBackoff(long delayInMillisec) {
+        ensure(delayInMillisec > 0, "Delay should be positive.");
+        this.delayInMillisec = delayInMillisec;
+    }
+
+    @Override
+    public long delay(int attempt, long previousDelayInMillisec) {
+        return delayInMillisec;
+    }
+
+    @Override
+    public String toString() {
+        return "FixedBackoff{delayInMillisec=" + delayInMillisec + '}';
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2017 The Retrier AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.retrier.backoff;
+
+
+import io.github.ravichaturvedi.retrier.BackoffStrategy;
+
+import static io.github.ravichaturvedi.retrier.helper.Ensurer.ensure;
+
+/**
+ * {@link FullJitterBackoff} is a {@link BackoffStrategy} waiting a random delay between 0 and the exponential delay,
+ * so the clients failing at the same time don't retry at the same time.
+ */
+public final class FullJitterBackoff implements BackoffStrategy {
+
+    private final long initialDelayInMillisec;
+    private final long maxDelayInMillisec;
+
+    public FullJitterBackoff(long initialDelayInMillisec, long maxDelayInMillisec) {
+        ensure(initialDelayInMillisec > 0, "Initial delay should be positive.");
+        ensure(maxDelayInMillisec > 0, "Max delay should be positive.");
+        this.initialDelayInMillisec = initialDelayInMillisec;
+        this.maxDelayInMillisec = maxDelayInMillisec;
+    }
+
+    @Override
+    public long delay(int attempt, long previousDelayInMillisec) {
+        long delay = ExponentialBackoff.delay(initialDelayInMillisec, maxDelayInMillisec, attempt);
+        return Jitter.between(0, delay);
+    }
+
+    @Override
+    public String toString() {
+        return "FullJitterBackoff{" +
+                "initialDelayInMillisec=" + initialDelayInMillisec +
+                ", maxDelayInMillisec=" + maxDelayInMillisec +
+                '}';
+    }
+}
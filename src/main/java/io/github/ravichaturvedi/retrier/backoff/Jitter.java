@@ -0,0 +1,41 @@
+/*
+ * Copyright 2017 The Retrier AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.retrier.backoff;
+
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * {@link Jitter} provides the random delays for the jitter backoff strategies.
+ */
+class Jitter {
+
+    /**
+     * Returns a random value between the provided bounds (both inclusive).
+     * @param lower
+     * @param upper
+     * @return
+     */
+    static long between(long lower, long upper) {
+        if (upper <= lower) {
+            return lower;
+        }
+        if (upper == Long.MAX_VALUE) {
+            return ThreadLocalRandom.current().nextLong(lower, upper);
+        }
+        return ThreadLocalRandom.current().nextLong(lower, upper + 1);
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2017 The Retrier AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.retrier.backoff;
+
+
+import io.github.ravichaturvedi.retrier.BackoffStrategy;
+
+import static io.github.ravichaturvedi.retrier.helper.Ensurer.ensure;
+
+/**
+ * {@link LinearBackoff} is a {@link BackoffStrategy} increasing the delay by a fixed increment after every retry.
+ */
+public final class LinearBackoff implements BackoffStrategy {
+
+    private final long initialDelayInMillisec;
+    private final long incrementInMillisec;
+    private final long maxDelayInMillisec;
+
+    public LinearBackoff(long initialDelayInMillisec, long incrementInMillisec, long maxDelayInMillisec) {
+        ensure(initialDelayInMillisec > 0, "Initial delay should be positive.");
+        ensure(incrementInMillisec >= 0, "Increment should not be negative.");
+        ensure(maxDelayInMillisec > 0, "Max delay should be positive.");
+        this.initialDelayInMillisec = initialDelayInMillisec;
+        this.incrementInMillisec = incrementInMillisec;
+        this.maxDelayInMillisec = maxDelayInMillisec;
+    }
+
+    @Override
+    public long delay(int attempt, long previousDelayInMillisec) {
+        long steps = attempt - 1;
+        if (incrementInMillisec != 0 && steps > (maxDelayInMillisec - initialDelayInMillisec) / incrementInMillisec) {
+            return maxDelayInMillisec;
+        }
+        return Math.min(initialDelayInMillisec + steps * incrementInMillisec, maxDelayInMillisec);
+    }
+
+    @Override
+    public String toString() {
+        return "LinearBackoff{" +
+                "initialDelayInMillisec=" + initialDelayInMillisec +
+                ", incrementInMillisec=" + incrementInMillisec +
+                ", maxDelayInMillisec=" + maxDelayInMillisec +
+                '}';
+    }
+}
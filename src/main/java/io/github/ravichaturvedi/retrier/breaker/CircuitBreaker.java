@@ -0,0 +1,302 @@
+/*
+ * Copyright 2017 The Retrier AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.retrier.breaker;
+
+
+import io.github.ravichaturvedi.retrier.Clock;
+import io.github.ravichaturvedi.retrier.helper.SlidingWindow;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static io.github.ravichaturvedi.retrier.helper.Ensurer.ensure;
+import static io.github.ravichaturvedi.retrier.helper.Ensurer.ensureNotNull;
+
+/**
+ * {@link CircuitBreaker} stops calling a failing dependency, based on the outcome of the recent attempts.
+ * <p>
+ * <ul>
+ * <li>CLOSED: calls are permitted and outcomes are recorded in a time sliced {@link SlidingWindow}. Once the window has the minimum
+ * number of calls and the failure or slow call rate reaches its threshold, the breaker opens.</li>
+ * <li>OPEN: calls are rejected until the wait duration passes, then the breaker is half open.</li>
+ * <li>HALF_OPEN: only the permitted number of trial calls are allowed, the breaker closes if their failure and slow call
+ * rates are below the thresholds, and opens again otherwise.</li>
+ * </ul>
+ * State transitions are CAS on an immutable state, so it can be shared by many threads without a lock.
+ */
+public class CircuitBreaker {
+
+    /**
+     * {@link Kind} of the {@link CircuitBreaker} state.
+     */
+    public enum Kind {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    // Number of time slices in the sliding window.
+    private static final int WINDOW_SLICES = 10;
+
+    // Counters of the window.
+    private static final int CALLS = 0;
+    private static final int FAILURES = 1;
+    private static final int SLOW_CALLS = 2;
+
+    private final double failureRateThreshold;
+    private final double slowCallRateThreshold;
+    private final long slowCallDurationInNanos;
+    private final int minimumNumberOfCalls;
+    private final long waitDurationInOpenStateInNanos;
+    private final int permittedCallsInHalfOpenState;
+
+    // Permission of the calls in closed state, which takes no permit.
+    private static final Permission CLOSED_PERMISSION = new Permission(null);
+
+    private final SlidingWindow window;
+    private final AtomicReference<State> state;
+
+    // Clock timing the open state and the sliding window, which should be the clock of the retriers using the breaker.
+    private final Clock clock;
+
+    /**
+     * Creates the {@link CircuitBreaker} opening on the failure rate (percentage) over the last 10 seconds, with at least 10 calls,
+     * and allowing 5 trial calls after the wait duration.
+     * @param failureRateThreshold
+     * @param waitDurationInOpenState
+     */
+    public CircuitBreaker(double failureRateThreshold, Duration waitDurationInOpenState) {
+        this(failureRateThreshold, waitDurationInOpenState, Clock.SYSTEM);
+    }
+
+    public CircuitBreaker(double failureRateThreshold, Duration waitDurationInOpenState, Clock clock) {
+        this(failureRateThreshold, 100, Duration.ofMillis(Long.MAX_VALUE), Duration.ofSeconds(10), 10, waitDurationInOpenState, 5, clock);
+    }
+
+    public CircuitBreaker(double failureRateThreshold, double slowCallRateThreshold, Duration slowCallDuration,
+                          Duration slidingWindowDuration, int minimumNumberOfCalls,
+                          Duration waitDurationInOpenState, int permittedCallsInHalfOpenState) {
+        this(failureRateThreshold, slowCallRateThreshold, slowCallDuration, slidingWindowDuration, minimumNumberOfCalls,
+                waitDurationInOpenState, permittedCallsInHalfOpenState, Clock.SYSTEM);
+    }
+
+    public CircuitBreaker(double failureRateThreshold, double slowCallRateThreshold, Duration slowCallDuration,
+                          Duration slidingWindowDuration, int minimumNumberOfCalls,
+                          Duration waitDurationInOpenState, int permittedCallsInHalfOpenState, Clock clock) {
+        ensure(failureRateThreshold > 0 && failureRateThreshold <= 100, "Failure rate threshold should be between 0 (exclusive) and 100.");
+        ensure(slowCallRateThreshold > 0 && slowCallRateThreshold <= 100, "Slow call rate threshold should be between 0 (exclusive) and 100.");
+        ensureNotNull(slowCallDuration, "Slow call duration cannot be null.");
+        ensureNotNull(slidingWindowDuration, "Sliding window duration cannot be null.");
+        ensureNotNull(waitDurationInOpenState, "Wait duration in open state cannot be null.");
+        ensure(slowCallDuration.toMillis() > 0, "Slow call duration should be positive.");
+        ensure(slidingWindowDuration.toNanos() >= WINDOW_SLICES, "Sliding window duration is too small.");
+        ensure(minimumNumberOfCalls > 0, "Minimum number of calls should be positive.");
+        ensure(!waitDurationInOpenState.isNegative(), "Wait duration in open state should not be negative.");
+        ensure(permittedCallsInHalfOpenState > 0, "Permitted calls in half open state should be positive.");
+        ensureNotNull(clock, "Clock cannot be null.");
+
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.slowCallDurationInNanos = saturatedNanos(slowCallDuration);
+        this.minimumNumberOfCalls = minimumNumberOfCalls;
+        this.waitDurationInOpenStateInNanos = saturatedNanos(waitDurationInOpenState);
+        this.permittedCallsInHalfOpenState = permittedCallsInHalfOpenState;
+        this.clock = clock;
+        this.window = new SlidingWindow(WINDOW_SLICES, slidingWindowDuration.toNanos() / WINDOW_SLICES, 3, clock);
+        this.state = new AtomicReference<>(new State(Kind.CLOSED, 0));
+    }
+
+    /**
+     * Returns the current state of the breaker.
+     * @return
+     */
+    public Kind getState() {
+        return state.get().kind;
+    }
+
+    /**
+     * Returns the {@link Permission} of a call, or null if the call is not permitted, moving the breaker to half open once the
+     * wait duration in open state has passed.
+     * Caller must record the outcome of a permitted call using {@link #onSuccess} or {@link #onFailure}, or give the permission
+     * back using {@link #releasePermission} if the call has no outcome.
+     * @return
+     */
+    public Permission tryAcquirePermission() {
+        while (true) {
+            State current = state.get();
+            switch (current.kind) {
+                case CLOSED:
+                    return CLOSED_PERMISSION;
+                case OPEN:
+                    if (clock.nanoTime() - current.openedAtInNanos < waitDurationInOpenStateInNanos) {
+                        return null;
+                    }
+                    // Move to half open and retry on the new state.
+                    state.compareAndSet(current, new State(Kind.HALF_OPEN, 0));
+                    break;
+                default:
+                    // Permits are never taken past the limit, so a permit given back can be taken again.
+                    int permits = current.permits.get();
+                    if (permits >= permittedCallsInHalfOpenState) {
+                        return null;
+                    }
+                    if (current.permits.compareAndSet(permits, permits + 1)) {
+                        return new Permission(current);
+                    }
+            }
+        }
+    }
+
+    /**
+     * Give back the permission of a call which has no outcome to record (e.g. cancelled or failed with an {@link Error}),
+     * so the trial call in half open state can be made by another call.
+     * It is given back to the half open state it was taken from only, never to a later one.
+     * @param permission
+     */
+    public void releasePermission(Permission permission) {
+        ensureNotNull(permission, "Permission cannot be null.");
+        if (permission.state != null) {
+            permission.state.permits.decrementAndGet();
+        }
+    }
+
+    /**
+     * Returns true if the breaker is open, i.e. the next call would most probably be rejected.
+     * @return
+     */
+    public boolean isOpen() {
+        State current = state.get();
+        return current.kind == Kind.OPEN && clock.nanoTime() - current.openedAtInNanos < waitDurationInOpenStateInNanos;
+    }
+
+    /**
+     * Record the success of a permitted call which took the provided duration.
+     * @param durationInNanos
+     */
+    public void onSuccess(long durationInNanos) {
+        record(false, durationInNanos);
+    }
+
+    /**
+     * Record the failure of a permitted call which took the provided duration.
+     * @param durationInNanos
+     */
+    public void onFailure(long durationInNanos) {
+        record(true, durationInNanos);
+    }
+
+    private void record(boolean failure, long durationInNanos) {
+        boolean slow = durationInNanos >= slowCallDurationInNanos;
+        State current = state.get();
+
+        switch (current.kind) {
+            case CLOSED:
+                window.increment(CALLS);
+                if (failure) {
+                    window.increment(FAILURES);
+                }
+                if (slow) {
+                    window.increment(SLOW_CALLS);
+                }
+                if ((failure || slow) && exceedsThresholds(window.sum(CALLS), window.sum(FAILURES), window.sum(SLOW_CALLS), minimumNumberOfCalls)) {
+                    open(current);
+                }
+                return;
+            case HALF_OPEN:
+                if (failure) {
+                    current.failures.incrementAndGet();
+                }
+                if (slow) {
+                    current.slowCalls.incrementAndGet();
+                }
+                int calls = current.calls.incrementAndGet();
+                if (calls == permittedCallsInHalfOpenState) {
+                    // Trial calls are evaluated all together.
+                    if (exceedsThresholds(calls, current.failures.get(), current.slowCalls.get(), permittedCallsInHalfOpenState)) {
+                        open(current);
+                    } else if (state.compareAndSet(current, new State(Kind.CLOSED, 0))) {
+                        window.reset();
+                    }
+                }
+                return;
+            default:
+                // Outcome of a call permitted before the breaker opened.
+        }
+    }
+
+    private boolean exceedsThresholds(long calls, long failures, long slowCalls, long minimumCalls) {
+        return calls >= minimumCalls &&
+                (failures * 100.0 >= failureRateThreshold * calls || slowCalls * 100.0 >= slowCallRateThreshold * calls);
+    }
+
+    private void open(State current) {
+        state.compareAndSet(current, new State(Kind.OPEN, clock.nanoTime()));
+    }
+
+    private static long saturatedNanos(Duration duration) {
+        try {
+            return duration.toNanos();
+        } catch (ArithmeticException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "CircuitBreaker{" +
+                "state=" + getState() +
+                ", failureRateThreshold=" + failureRateThreshold +
+                ", slowCallRateThreshold=" + slowCallRateThreshold +
+                ", slowCallDurationInNanos=" + slowCallDurationInNanos +
+                ", minimumNumberOfCalls=" + minimumNumberOfCalls +
+                ", waitDurationInOpenStateInNanos=" + waitDurationInOpenStateInNanos +
+                ", permittedCallsInHalfOpenState=" + permittedCallsInHalfOpenState +
+                '}';
+    }
+
+    /**
+     * {@link State} of the breaker, replaced on every transition.
+     */
+    /**
+     * {@link Permission} of a call, keeping the state it was taken from.
+     */
+    public static final class Permission {
+
+        // Half open state the permit was taken from, null in closed state which takes no permit.
+        private final State state;
+
+        private Permission(State state) {
+            this.state = state;
+        }
+    }
+
+    private static final class State {
+        final Kind kind;
+        final long openedAtInNanos;
+
+        // Trial calls permitted and recorded in half open state.
+        final AtomicInteger permits = new AtomicInteger();
+        final AtomicInteger calls = new AtomicInteger();
+        final AtomicInteger failures = new AtomicInteger();
+        final AtomicInteger slowCalls = new AtomicInteger();
+
+        State(Kind kind, long openedAtInNanos) {
+            this.kind = kind;
+            this.openedAtInNanos = openedAtInNanos;
+        }
+    }
+}
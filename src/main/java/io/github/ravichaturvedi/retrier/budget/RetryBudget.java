@@ -0,0 +1,88 @@
+/*
+ * Copyright 2017 The Retrier AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.retrier.budget;
+
+
+import io.github.ravichaturvedi.retrier.Clock;
+import io.github.ravichaturvedi.retrier.helper.SlidingWindow;
+
+import java.util.concurrent.TimeUnit;
+
+import static io.github.ravichaturvedi.retrier.helper.Ensurer.ensure;
+
+/**
+ * {@link RetryBudget} limits the retries to a ratio of the requests made over the last {@link #WINDOW_SECONDS} seconds,
+ * plus a minimum number of retries per second, so that a degraded dependency doesn't get the load multiplied by the retries.
+ * <p>
+ * Requests and retries are counted in a per second {@link SlidingWindow}, so it can be shared by many threads without a lock.
+ * Budget is approximate: concurrent retries may slightly overdraw it.
+ */
+public final class RetryBudget {
+
+    // Number of seconds the requests and retries are accounted for.
+    public static final int WINDOW_SECONDS = 10;
+
+    // Counters of the window.
+    private static final int REQUESTS = 0;
+    private static final int RETRIES = 1;
+
+    private final double ratio;
+    private final int minRetriesPerSecond;
+
+    private final SlidingWindow window;
+
+    public RetryBudget(double ratio, int minRetriesPerSecond) {
+        this(ratio, minRetriesPerSecond, Clock.SYSTEM);
+    }
+
+    public RetryBudget(double ratio, int minRetriesPerSecond, Clock clock) {
+        ensure(ratio >= 0, "Retry ratio should not be negative.");
+        ensure(minRetriesPerSecond >= 0, "Min retries per second should not be negative.");
+        this.ratio = ratio;
+        this.minRetriesPerSecond = minRetriesPerSecond;
+        this.window = new SlidingWindow(WINDOW_SECONDS, TimeUnit.SECONDS.toNanos(1), 2, clock);
+    }
+
+    /**
+     * Record a request (first attempt of a retry call), which deposits `ratio` retries in the budget.
+     */
+    public void recordRequest() {
+        window.increment(REQUESTS);
+    }
+
+    /**
+     * Withdraw a retry from the budget, returns false if the budget is spent.
+     * @return
+     */
+    public boolean tryAcquireRetry() {
+        long requests = window.sum(REQUESTS);
+        long retries = window.sum(RETRIES);
+        if (retries >= ratio * requests + (double) minRetriesPerSecond * WINDOW_SECONDS) {
+            return false;
+        }
+
+        window.increment(RETRIES);
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "RetryBudget{" +
+                "ratio=" + ratio +
+                ", minRetriesPerSecond=" + minRetriesPerSecond +
+                '}';
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2017 The Retrier AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.retrier.bulkhead;
+
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.github.ravichaturvedi.retrier.helper.Ensurer.ensure;
+import static io.github.ravichaturvedi.retrier.helper.Ensurer.ensureNotNull;
+
+/**
+ * {@link Bulkhead} caps the number of concurrent attempts of a retrier, so a slow dependency cannot take all the threads
+ * away from the others.
+ * <p>
+ * Permits are kept in a fair {@link Semaphore}: attempts over the cap wait in FIFO order, up to the max wait, and are rejected
+ * right away once the max number of attempts are already waiting. Permit is only held while an attempt runs,
+ * it is released before the backoff delay.
+ */
+public final class Bulkhead {
+
+    private final int maxConcurrentAttempts;
+    private final int maxWaitingAttempts;
+    private final long maxWaitInNanos;
+
+    private final Semaphore permits;
+
+    // Number of attempts waiting for a permit.
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    public Bulkhead(int maxConcurrentAttempts, int maxWaitingAttempts, Duration maxWait) {
+        ensure(maxConcurrentAttempts > 0, "Max concurrent attempts should be positive.");
+        ensure(maxWaitingAttempts >= 0, "Max waiting attempts should not be negative.");
+        ensureNotNull(maxWait, "Max wait cannot be null.");
+        ensure(!maxWait.isNegative(), "Max wait should not be negative.");
+        this.maxConcurrentAttempts = maxConcurrentAttempts;
+        this.maxWaitingAttempts = maxWaitingAttempts;
+        this.maxWaitInNanos = maxWait.toNanos();
+        this.permits = new Semaphore(maxConcurrentAttempts, true);
+    }
+
+    /**
+     * Acquire the permit for an attempt, waiting up to the max wait if all the permits are taken and the wait queue is not full.
+     * @return true if the permit is acquired, false otherwise
+     * @throws InterruptedException
+     */
+    public boolean tryAcquire() throws InterruptedException {
+        // Timed acquire (unlike the untimed one) doesn't barge ahead of the waiting attempts.
+        if (permits.tryAcquire(0, TimeUnit.NANOSECONDS)) {
+            return true;
+        }
+        if (maxWaitInNanos == 0) {
+            return false;
+        }
+
+        if (waiting.incrementAndGet() > maxWaitingAttempts) {
+            waiting.decrementAndGet();
+            return false;
+        }
+        try {
+            return permits.tryAcquire(maxWaitInNanos, TimeUnit.NANOSECONDS);
+        } finally {
+            waiting.decrementAndGet();
+        }
+    }
+
+    /**
+     * Acquire the permit for an attempt without waiting, for the attempts started on a thread which must not block
+     * (e.g. the scheduler of the async retries).
+     * @return true if the permit is acquired, false otherwise
+     */
+    public boolean tryAcquireNow() {
+        try {
+            return permits.tryAcquire(0, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException ie) {
+            // Zero timeout never waits, but the interrupt status is checked first.
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Release the permit of a completed attempt.
+     */
+    public void release() {
+        permits.release();
+    }
+
+    /**
+     * Returns the number of the permits available.
+     * @return
+     */
+    public int getAvailablePermits() {
+        return permits.availablePermits();
+    }
+
+    @Override
+    public String toString() {
+        return "Bulkhead{" +
+                "maxConcurrentAttempts=" + maxConcurrentAttempts +
+                ", maxWaitingAttempts=" + maxWaitingAttempts +
+                ", maxWait=" + Duration.ofNanos(maxWaitInNanos) +
+                ", availablePermits=" + permits.availablePermits() +
+                ", waiting=" + waiting.get() +
+                '}';
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2017 The Retrier AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.retrier.clock;
+
+
+import io.github.ravichaturvedi.retrier.Clock;
+
+import java.time.Duration;
+import java.util.concurrent.locks.LockSupport;
+
+import static io.github.ravichaturvedi.retrier.helper.Ensurer.ensure;
+import static io.github.ravichaturvedi.retrier.helper.Ensurer.ensureNotNull;
+
+/**
+ * {@link CoarseClock} is a {@link Clock} returning the time cached by a daemon thread, refreshed every precision period.
+ * <p>
+ * Reading it is a single volatile read instead of a call to {@link System#nanoTime()}, for very high call rates which can
+ * do with elapsed times approximated to the precision.
+ */
+public final class CoarseClock implements Clock {
+
+    private final long precisionInNanos;
+
+    // Time cached by the updater thread.
+    private volatile long nanoTime = System.nanoTime();
+
+    private volatile boolean closed;
+
+    private final Thread thread;
+
+    public CoarseClock(Duration precision) {
+        ensureNotNull(precision, "Precision cannot be null.");
+        ensure(precision.toNanos() > 0, "Precision should be positive.");
+        this.precisionInNanos = precision.toNanos();
+        this.thread = new Thread(this::run, "retrier-coarse-clock");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    @Override
+    public long nanoTime() {
+        return nanoTime;
+    }
+
+    /**
+     * Stop the updater thread, the clock then stays at its last time.
+     */
+    public void close() {
+        closed = true;
+        LockSupport.unpark(thread);
+    }
+
+    private void run() {
+        while (!closed) {
+            LockSupport.parkNanos(this, precisionInNanos);
+            nanoTime = System.nanoTime();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "CoarseClock{" +
+                "precision=" + Duration.ofNanos(precisionInNanos) +
+                ", closed=" + closed +
+                '}';
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2017 The Retrier AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.retrier.clock;
+
+
+import io.github.ravichaturvedi.retrier.Clock;
+import io.github.ravichaturvedi.retrier.Sleeper;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static io.github.ravichaturvedi.retrier.helper.Ensurer.ensure;
+import static io.github.ravichaturvedi.retrier.helper.Ensurer.ensureNotNull;
+
+/**
+ * {@link VirtualClock} is a {@link Clock} and {@link Sleeper} in virtual time, only moving forward when advanced.
+ * <p>
+ * Sleeping advances the clock by the duration and returns immediately, so the retries wait out their backoff delays and
+ * run into their timeouts without any real waiting. Tests can also advance it manually, e.g. to simulate a slow attempt.
+ */
+public final class VirtualClock implements Clock, Sleeper {
+
+    private final AtomicLong nanoTime = new AtomicLong();
+
+    @Override
+    public long nanoTime() {
+        return nanoTime.get();
+    }
+
+    @Override
+    public void sleep(long durationInMillisec) {
+        ensure(durationInMillisec >= 0, "Duration should not be negative.");
+        nanoTime.addAndGet(TimeUnit.MILLISECONDS.toNanos(durationInMillisec));
+    }
+
+    /**
+     * Advance the clock by the provided duration.
+     * @param duration
+     */
+    public void advance(Duration duration) {
+        ensureNotNull(duration, "Duration cannot be null.");
+        ensure(!duration.isNegative(), "Duration should not be negative.");
+        nanoTime.addAndGet(duration.toNanos());
+    }
+
+    /**
+     * Returns the time elapsed since the creation of the clock.
+     * @return
+     */
+    public Duration elapsed() {
+        return Duration.ofNanos(nanoTime.get());
+    }
+
+    @Override
+    public String toString() {
+        return "VirtualClock{" +
+                "elapsed=" + elapsed() +
+                '}';
+    }
+}
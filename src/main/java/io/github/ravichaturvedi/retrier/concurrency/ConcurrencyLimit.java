@@ -0,0 +1,60 @@
+/*
+ * Copyright 2017 The Retrier AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.retrier.concurrency;
+
+
+/**
+ * {@link ConcurrencyLimit} defines the semantics of estimating the number of attempts which can be in flight at once,
+ * from the round trip time (RTT) of the completed attempts.
+ * <p>
+ * Limit is read on every attempt, so it should be cheap to get; samples may be serialized by the implementation.
+ */
+public interface ConcurrencyLimit {
+
+    /**
+     * Returns the current limit of the attempts in flight.
+     * @return
+     */
+    int getLimit();
+
+    /**
+     * Record the round trip time of a completed attempt.
+     * @param rttInNanos round trip time of the attempt
+     * @param inFlight number of the attempts in flight when the attempt completed
+     * @param dropped whether the attempt timed out, i.e. the dependency is overloaded
+     */
+    void onSample(long rttInNanos, int inFlight, boolean dropped);
+
+    /**
+     * Returns the gradient {@link ConcurrencyLimit}, adjusting the limit by the ratio of the long term RTT to the current RTT.
+     * @param initialLimit
+     * @param maxLimit
+     * @return
+     */
+    static ConcurrencyLimit gradient(int initialLimit, int maxLimit) {
+        return new GradientLimit(initialLimit, maxLimit);
+    }
+
+    /**
+     * Returns the Vegas {@link ConcurrencyLimit}, adjusting the limit by the queue size estimated from the no-load RTT and the current RTT.
+     * @param initialLimit
+     * @param maxLimit
+     * @return
+     */
+    static ConcurrencyLimit vegas(int initialLimit, int maxLimit) {
+        return new VegasLimit(initialLimit, maxLimit);
+    }
+}
@@ -0,0 +1,32 @@
+/*
+ * Copyright 2017 The Retrier AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.retrier.concurrency;
+
+
+/**
+ * {@link ConcurrencyLimitExceededException} is raised instead of calling the operation, when the {@link ConcurrencyLimiter}
+ * doesn't permit the attempt within the max wait.
+ * <p>
+ * It doesn't fill in the stack trace, as it is raised for every rejected attempt while the dependency is saturated.
+ */
+public class ConcurrencyLimitExceededException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public ConcurrencyLimitExceededException(String message) {
+        super(message, null, false, false);
+    }
+}
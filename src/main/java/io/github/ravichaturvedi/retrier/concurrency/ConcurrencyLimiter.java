@@ -0,0 +1,164 @@
+/*
+ * Copyright 2017 The Retrier AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.retrier.concurrency;
+
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static io.github.ravichaturvedi.retrier.helper.Ensurer.ensure;
+import static io.github.ravichaturvedi.retrier.helper.Ensurer.ensureNotNull;
+
+/**
+ * {@link ConcurrencyLimiter} limits the number of attempts in flight through a retrier to the adaptive {@link ConcurrencyLimit},
+ * feeding it with the RTT of the completed attempts.
+ * <p>
+ * Attempts over the limit are either rejected immediately (max wait of 0) or wait up to the max wait, in FIFO order,
+ * for an attempt in flight to complete. The permit is taken by a CAS while nobody is waiting, the lock is only used to wait.
+ */
+public final class ConcurrencyLimiter {
+
+    private final ConcurrencyLimit limit;
+    private final long maxWaitInNanos;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    // Number of threads waiting for a permit, so new attempts queue up behind them and releases know whether to signal.
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    private final ReentrantLock lock = new ReentrantLock(true);
+    private final Condition released = lock.newCondition();
+
+    public ConcurrencyLimiter(ConcurrencyLimit limit, Duration maxWait) {
+        ensureNotNull(limit, "Concurrency limit cannot be null.");
+        ensureNotNull(maxWait, "Max wait cannot be null.");
+        ensure(!maxWait.isNegative(), "Max wait should not be negative.");
+        this.limit = limit;
+        this.maxWaitInNanos = maxWait.toNanos();
+    }
+
+    /**
+     * Acquire the permit for an attempt, waiting up to the max wait if the limit is reached.
+     * @return true if the permit is acquired, false otherwise
+     * @throws InterruptedException
+     */
+    public boolean tryAcquire() throws InterruptedException {
+        if (tryAcquireNow()) {
+            return true;
+        }
+        if (maxWaitInNanos == 0) {
+            return false;
+        }
+
+        waiting.incrementAndGet();
+        lock.lock();
+        try {
+            long remainingTimeInNanos = maxWaitInNanos;
+            while (!tryIncrement()) {
+                if (remainingTimeInNanos <= 0) {
+                    // Pass on the signal this thread might have consumed while timing out.
+                    released.signal();
+                    return false;
+                }
+                remainingTimeInNanos = released.awaitNanos(remainingTimeInNanos);
+            }
+            return true;
+        } finally {
+            lock.unlock();
+            waiting.decrementAndGet();
+        }
+    }
+
+    /**
+     * Acquire the permit for an attempt without waiting, for the attempts started on a thread which must not block
+     * (e.g. the scheduler of the async retries). Permit is not taken ahead of the attempts already waiting.
+     * @return true if the permit is acquired, false otherwise
+     */
+    public boolean tryAcquireNow() {
+        return waiting.get() == 0 && tryIncrement();
+    }
+
+    private boolean tryIncrement() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit.getLimit()) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Release the permit of a completed attempt, recording its RTT in the {@link ConcurrencyLimit}.
+     * @param rttInNanos
+     * @param dropped whether the attempt timed out
+     */
+    public void release(long rttInNanos, boolean dropped) {
+        limit.onSample(rttInNanos, inFlight.getAndDecrement(), dropped);
+        signal();
+    }
+
+    /**
+     * Release the permit of an attempt whose RTT tells nothing about the capacity (e.g. failed on a validation error).
+     */
+    public void release() {
+        inFlight.decrementAndGet();
+        signal();
+    }
+
+    private void signal() {
+        if (waiting.get() == 0) {
+            return;
+        }
+
+        lock.lock();
+        try {
+            released.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the current limit of the attempts in flight.
+     * @return
+     */
+    public int getLimit() {
+        return limit.getLimit();
+    }
+
+    /**
+     * Returns the number of the attempts in flight.
+     * @return
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    @Override
+    public String toString() {
+        return "ConcurrencyLimiter{" +
+                "limit=" + limit +
+                ", maxWait=" + Duration.ofNanos(maxWaitInNanos) +
+                ", inFlight=" + inFlight.get() +
+                ", waiting=" + waiting.get() +
+                '}';
+    }
+}
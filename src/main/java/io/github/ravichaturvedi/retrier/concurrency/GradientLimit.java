@@ -0,0 +1,86 @@
+/*
+ * Copyright 2017 The Retrier AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.retrier.concurrency;
+
+
+import static io.github.ravichaturvedi.retrier.helper.Ensurer.ensure;
+
+/**
+ * {@link GradientLimit} is a {@link ConcurrencyLimit} comparing the current RTT with the long term (exponentially averaged) RTT.
+ * <p>
+ * Gradient is the ratio of the long term RTT (with some tolerance) to the current RTT, between 0.5 and 1:
+ * limit is shrunk as soon as the latency goes up, and grows by the allowed queue size (square root of the limit) otherwise.
+ * Limit only grows if the attempts actually use at least half of it.
+ */
+public final class GradientLimit implements ConcurrencyLimit {
+
+    // Ratio of the current RTT to the long term RTT tolerated before shrinking the limit.
+    private static final double TOLERANCE = 1.5;
+
+    // Weight of the new sample in the long term RTT and of the new limit.
+    private static final double RTT_SMOOTHING = 0.01;
+    private static final double LIMIT_SMOOTHING = 0.2;
+
+    private final int maxLimit;
+
+    // Estimated limit, only updated under lock.
+    private double estimatedLimit;
+
+    // Long term RTT, 0 before the first sample.
+    private double longRttInNanos;
+
+    private volatile int limit;
+
+    public GradientLimit(int initialLimit, int maxLimit) {
+        ensure(initialLimit > 0, "Initial limit should be positive.");
+        ensure(maxLimit >= initialLimit, "Max limit should not be less than initial limit.");
+        this.maxLimit = maxLimit;
+        this.estimatedLimit = initialLimit;
+        this.limit = initialLimit;
+    }
+
+    @Override
+    public int getLimit() {
+        return limit;
+    }
+
+    @Override
+    public synchronized void onSample(long rttInNanos, int inFlight, boolean dropped) {
+        if (rttInNanos <= 0) {
+            return;
+        }
+
+        longRttInNanos = longRttInNanos == 0 ? rttInNanos : longRttInNanos * (1 - RTT_SMOOTHING) + rttInNanos * RTT_SMOOTHING;
+
+        // Don't grow the limit when it is not even used, the latency tells nothing about it.
+        if (!dropped && inFlight * 2 < estimatedLimit) {
+            return;
+        }
+
+        double gradient = dropped ? 0.5 : Math.max(0.5, Math.min(1.0, TOLERANCE * longRttInNanos / rttInNanos));
+        double newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        estimatedLimit = Math.max(1, Math.min(maxLimit, estimatedLimit * (1 - LIMIT_SMOOTHING) + newLimit * LIMIT_SMOOTHING));
+        limit = (int) estimatedLimit;
+    }
+
+    @Override
+    public String toString() {
+        return "GradientLimit{" +
+                "maxLimit=" + maxLimit +
+                ", limit=" + limit +
+                '}';
+    }
+}
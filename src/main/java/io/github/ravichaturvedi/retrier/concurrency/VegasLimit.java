@@ -0,0 +1,86 @@
+/*
+ * Copyright 2017 The Retrier AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.retrier.concurrency;
+
+
+import static io.github.ravichaturvedi.retrier.helper.Ensurer.ensure;
+
+/**
+ * {@link VegasLimit} is a {@link ConcurrencyLimit} estimating the queue at the dependency like TCP Vegas does,
+ * from the min RTT observed (no-load RTT) and the current RTT: queue = limit * (1 - noLoadRtt / rtt).
+ * <p>
+ * Limit grows while the queue is below alpha (3 * log10(limit)), shrinks when it is over beta (6 * log10(limit)) or
+ * an attempt timed out, by log10(limit) (at least 1) each time.
+ */
+public final class VegasLimit implements ConcurrencyLimit {
+
+    private final int maxLimit;
+
+    // No-load RTT, 0 before the first sample.
+    private long noLoadRttInNanos;
+
+    private volatile int limit;
+
+    public VegasLimit(int initialLimit, int maxLimit) {
+        ensure(initialLimit > 0, "Initial limit should be positive.");
+        ensure(maxLimit >= initialLimit, "Max limit should not be less than initial limit.");
+        this.maxLimit = maxLimit;
+        this.limit = initialLimit;
+    }
+
+    @Override
+    public int getLimit() {
+        return limit;
+    }
+
+    @Override
+    public synchronized void onSample(long rttInNanos, int inFlight, boolean dropped) {
+        if (rttInNanos <= 0) {
+            return;
+        }
+        if (noLoadRttInNanos == 0 || rttInNanos < noLoadRttInNanos) {
+            noLoadRttInNanos = rttInNanos;
+        }
+
+        int currentLimit = limit;
+        double log10 = Math.log10(currentLimit);
+        int step = (int) Math.max(1, log10);
+
+        if (dropped) {
+            limit = Math.max(1, currentLimit - step);
+            return;
+        }
+
+        double queueSize = Math.ceil(currentLimit * (1 - (double) noLoadRttInNanos / rttInNanos));
+        if (queueSize < Math.max(3, 3 * log10)) {
+            // Don't grow the limit when it is not even used.
+            if (inFlight * 2 >= currentLimit) {
+                limit = Math.min(maxLimit, currentLimit + step);
+            }
+        } else if (queueSize > Math.max(6, 6 * log10)) {
+            limit = Math.max(1, currentLimit - step);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "VegasLimit{" +
+                "maxLimit=" + maxLimit +
+                ", noLoadRttInNanos=" + noLoadRttInNanos +
+                ", limit=" + limit +
+                '}';
+    }
+}
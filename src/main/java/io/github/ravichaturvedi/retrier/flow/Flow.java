@@ -0,0 +1,83 @@
+/*
+ * Copyright 2017 The Retrier AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.retrier.flow;
+
+
+/**
+ * {@link Flow} holds the reactive stream interfaces, same as {@code java.util.concurrent.Flow} of Java 9 (which is not
+ * available on Java 8), so that any Reactive Streams or Java 9 publisher can be adapted with a couple of lambdas.
+ * <p>
+ * Signals to a {@link Subscriber} are serialized, and a publisher never emits more elements than requested.
+ */
+public final class Flow {
+
+    private Flow() {
+    }
+
+    /**
+     * {@link Publisher} of the elements received by its subscribers, each getting its own {@link Subscription}.
+     * @param <T>
+     */
+    @FunctionalInterface
+    public interface Publisher<T> {
+
+        /**
+         * Add the provided {@link Subscriber}, which then gets {@link Subscriber#onSubscribe(Subscription)}.
+         * @param subscriber
+         */
+        void subscribe(Subscriber<? super T> subscriber);
+    }
+
+    /**
+     * {@link Subscriber} of the elements of a {@link Publisher}.
+     * @param <T>
+     */
+    public interface Subscriber<T> {
+
+        void onSubscribe(Subscription subscription);
+
+        void onNext(T item);
+
+        void onError(Throwable throwable);
+
+        void onComplete();
+    }
+
+    /**
+     * {@link Subscription} linking a {@link Subscriber} to its {@link Publisher}.
+     */
+    public interface Subscription {
+
+        /**
+         * Add the provided number of elements to the demand of the subscriber.
+         * @param n
+         */
+        void request(long n);
+
+        /**
+         * Stop receiving the elements, eventually.
+         */
+        void cancel();
+    }
+
+    /**
+     * {@link Processor} is both a {@link Subscriber} and a {@link Publisher}.
+     * @param <T>
+     * @param <R>
+     */
+    public interface Processor<T, R> extends Subscriber<T>, Publisher<R> {
+    }
+}
@@ -0,0 +1,330 @@
+/*
+ * Copyright 2017 The Retrier AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.retrier.flow;
+
+
+import io.github.ravichaturvedi.retrier.Handler;
+import io.github.ravichaturvedi.retrier.Sleeper;
+import io.github.ravichaturvedi.retrier.handler.Execution;
+import io.github.ravichaturvedi.retrier.handler.ExecutionPlan;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static io.github.ravichaturvedi.retrier.helper.Ensurer.ensureNotNull;
+
+/**
+ * {@link RetryPublisher} is a {@link Flow.Publisher} resubscribing to the upstream on failure, resuming after the position
+ * of the last element delivered downstream instead of replaying the stream from the start.
+ * <p>
+ * Upstream for a position is provided by the publisher function, and the position of every element by the position function.
+ * Each subscription to the upstream is an attempt of the {@link ExecutionPlan}, so the limits and backoff apply to the
+ * resubscriptions, the backoff delay being scheduled instead of blocking any thread. An attempt succeeds as soon as it delivers
+ * an element, so a failure after some progress starts a new retry (counted as its first attempt) rather than consuming the
+ * limits of the previous one. Downstream demand not yet satisfied is requested from every new upstream subscription.
+ * @param <T> type of the elements
+ * @param <P> type of the position
+ */
+public final class RetryPublisher<T, P> implements Flow.Publisher<T> {
+
+    private final ExecutionPlan plan;
+    private final ScheduledExecutorService scheduler;
+    private final Handler handler;
+
+    // Position to subscribe from initially, passed as is to the publisher function.
+    private final P initialPosition;
+
+    private final Function<? super P, ? extends Flow.Publisher<T>> publisherFunction;
+    private final Function<? super T, ? extends P> positionFunction;
+
+    public RetryPublisher(ExecutionPlan plan, ScheduledExecutorService scheduler, Handler handler, P initialPosition,
+                          Function<? super P, ? extends Flow.Publisher<T>> publisherFunction, Function<? super T, ? extends P> positionFunction) {
+        ensureNotNull(plan, "Execution plan cannot be null.");
+        ensureNotNull(scheduler, "Scheduler cannot be null.");
+        ensureNotNull(handler, "Handler cannot be null.");
+        ensureNotNull(publisherFunction, "Publisher function cannot be null.");
+        ensureNotNull(positionFunction, "Position function cannot be null.");
+        this.plan = plan;
+        this.scheduler = scheduler;
+        this.handler = handler;
+        this.initialPosition = initialPosition;
+        this.publisherFunction = publisherFunction;
+        this.positionFunction = positionFunction;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super T> subscriber) {
+        ensureNotNull(subscriber, "Subscriber cannot be null.");
+        RetrySubscription subscription = new RetrySubscription(subscriber);
+        subscriber.onSubscribe(subscription);
+        subscription.subscribeUpstream();
+    }
+
+    /**
+     * {@link RetrySubscription} keeps track of the retries of a single downstream subscriber.
+     * <p>
+     * It acts as the {@link Sleeper} of its execution, so the backoff delay gets scheduled instead of blocking the thread.
+     * Demand and upstream subscription are guarded by its lock, so the demand requested while resubscribing is never lost or doubled.
+     */
+    private class RetrySubscription implements Flow.Subscription, Sleeper {
+
+        private final Flow.Subscriber<? super T> downstream;
+
+        // Position of the last element delivered downstream.
+        private volatile P position = initialPosition;
+
+        // Execution of the current retry, null once the last attempt made progress.
+        private volatile Execution execution;
+
+        // Demand of the downstream not yet satisfied, Long.MAX_VALUE for unbounded.
+        private long requested;
+
+        // Subscription to the current upstream, null while resubscribing.
+        private Flow.Subscription upstream;
+
+        private volatile boolean cancelled;
+
+        // Whether the downstream got its terminal signal.
+        private volatile boolean done;
+
+        // Backoff delay requested by the execution for the next attempt.
+        private long delayInMillisec;
+
+        RetrySubscription(Flow.Subscriber<? super T> downstream) {
+            this.downstream = downstream;
+        }
+
+        @Override
+        public void sleep(long durationInMillisec) {
+            delayInMillisec += durationInMillisec;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                cancel();
+                terminate(new IllegalArgumentException("Requested number of elements should be positive."));
+                return;
+            }
+
+            Flow.Subscription s;
+            synchronized (this) {
+                requested = requested + n < 0 ? Long.MAX_VALUE : requested + n;
+                s = upstream;
+            }
+            if (s != null) {
+                s.request(n);
+            }
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            Flow.Subscription s;
+            synchronized (this) {
+                s = upstream;
+                upstream = null;
+            }
+            if (s != null) {
+                s.cancel();
+            }
+            cancelExecution();
+        }
+
+        private void cancelExecution() {
+            Execution e = execution;
+            if (e != null) {
+                synchronized (e) {
+                    e.handleCancel();
+                }
+            }
+        }
+
+        void subscribeUpstream() {
+            if (cancelled) {
+                return;
+            }
+
+            Execution e = execution;
+            if (e == null) {
+                e = plan.newNonBlockingExecution(handler, this);
+                execution = e;
+            }
+            try {
+                synchronized (e) {
+                    e.handlePreExec();
+                }
+                Flow.Publisher<T> publisher = publisherFunction.apply(position);
+                ensureNotNull(publisher, "Publisher cannot be null.");
+                publisher.subscribe(new UpstreamSubscriber());
+            } catch (Exception ex) {
+                fail(ex);
+            } catch (Throwable t) {
+                // Errors are not retried, but the permits of the attempt must not be lost with them.
+                cancelExecution();
+                terminate(t);
+            }
+        }
+
+        private void progress() {
+            // Attempt made progress, so the next failure starts a new retry.
+            Execution e = execution;
+            if (e != null) {
+                execution = null;
+                synchronized (e) {
+                    e.handlePostExec(null);
+                }
+            }
+        }
+
+        private void fail(Exception failure) {
+            if (cancelled) {
+                return;
+            }
+
+            try {
+                // Let the handler chain decide whether to resubscribe, it raises the exception otherwise.
+                delayInMillisec = 0;
+                Execution e = execution;
+                if (e != null) {
+                    synchronized (e) {
+                        e.handleException(failure);
+                    }
+                } else if (!handler.canHandle(failure)) {
+                    // Call already ended with the progress, so the failure is only classified, not taken for an attempt.
+                    terminate(failure);
+                    return;
+                } else {
+                    // Failed attempt made progress, so it starts the new retry without running another one.
+                    e = plan.newNonBlockingExecution(handler, this);
+                    execution = e;
+                    synchronized (e) {
+                        e.handleResumedException(failure);
+                    }
+                }
+            } catch (Exception ex) {
+                terminate(ex);
+                return;
+            }
+
+            // Always hop onto the scheduler, so synchronously failing publishers don't recurse on the caller stack.
+            if (delayInMillisec > 0) {
+                scheduler.schedule(this::subscribeUpstream, delayInMillisec, TimeUnit.MILLISECONDS);
+            } else {
+                scheduler.execute(this::subscribeUpstream);
+            }
+        }
+
+        private void terminate(Throwable t) {
+            if (!done) {
+                done = true;
+                downstream.onError(t);
+            }
+        }
+
+        /**
+         * {@link UpstreamSubscriber} is subscribed to a single upstream publisher, ignoring its signals once it has failed.
+         */
+        private class UpstreamSubscriber implements Flow.Subscriber<T> {
+
+            // Whether an element was delivered since the subscription.
+            private boolean progressed;
+
+            // Whether the upstream sent its terminal signal.
+            private boolean terminated;
+
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                long r;
+                synchronized (RetrySubscription.this) {
+                    if (cancelled || upstream != null) {
+                        r = -1;
+                    } else {
+                        upstream = subscription;
+                        r = requested;
+                    }
+                }
+                if (r < 0) {
+                    subscription.cancel();
+                } else if (r > 0) {
+                    subscription.request(r);
+                }
+            }
+
+            @Override
+            public void onNext(T item) {
+                if (terminated || cancelled) {
+                    return;
+                }
+
+                P itemPosition;
+                try {
+                    itemPosition = positionFunction.apply(item);
+                } catch (RuntimeException e) {
+                    // Element cannot be resumed from, so the stream cannot be retried safely.
+                    terminated = true;
+                    cancel();
+                    terminate(e);
+                    return;
+                }
+
+                synchronized (RetrySubscription.this) {
+                    if (requested != Long.MAX_VALUE) {
+                        requested--;
+                    }
+                }
+                if (!progressed) {
+                    progressed = true;
+                    progress();
+                }
+                downstream.onNext(item);
+                position = itemPosition;
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                if (terminated) {
+                    return;
+                }
+                terminated = true;
+                synchronized (RetrySubscription.this) {
+                    upstream = null;
+                }
+
+                if (t instanceof Exception) {
+                    fail((Exception) t);
+                } else {
+                    cancelExecution();
+                    terminate(t);
+                }
+            }
+
+            @Override
+            public void onComplete() {
+                if (terminated) {
+                    return;
+                }
+                terminated = true;
+                progress();
+                if (!cancelled && !done) {
+                    done = true;
+                    downstream.onComplete();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,639 @@
+/*
+ * Copyright 2017 The Retrier AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.retrier.handler;
+
+
+import io.github.ravichaturvedi.retrier.Handler;
+import io.github.ravichaturvedi.retrier.RetryContext;
+import io.github.ravichaturvedi.retrier.RetryListener;
+import io.github.ravichaturvedi.retrier.Sleeper;
+import io.github.ravichaturvedi.retrier.Tracer;
+import io.github.ravichaturvedi.retrier.breaker.CircuitBreaker;
+import io.github.ravichaturvedi.retrier.breaker.CircuitBreakerOpenException;
+import io.github.ravichaturvedi.retrier.budget.RetryBudget;
+import io.github.ravichaturvedi.retrier.bulkhead.Bulkhead;
+import io.github.ravichaturvedi.retrier.bulkhead.BulkheadFullException;
+import io.github.ravichaturvedi.retrier.concurrency.ConcurrencyLimitExceededException;
+import io.github.ravichaturvedi.retrier.concurrency.ConcurrencyLimiter;
+import io.github.ravichaturvedi.retrier.handler.limit.ExpBackoffHandler;
+import io.github.ravichaturvedi.retrier.handler.limit.RetryCountHandler;
+import io.github.ravichaturvedi.retrier.handler.limit.TimeoutHandler;
+import io.github.ravichaturvedi.retrier.hedge.Hedging;
+import io.github.ravichaturvedi.retrier.history.AttemptHistory;
+import io.github.ravichaturvedi.retrier.history.RetriesExhaustedException;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Predicate;
+
+import static io.github.ravichaturvedi.retrier.helper.Ensurer.ensure;
+import static io.github.ravichaturvedi.retrier.helper.Ensurer.ensureNotNull;
+
+/**
+ * {@link Execution} is a {@link Handler} keeping track of the state of a single retry call of an {@link ExecutionPlan}.
+ * <p>
+ * Handler chain is: limits (timeout, deadline, retry count) -> exception {@link Handler} -> circuit breaker -> retry budget -> backoff -> timeout,
+ * the exception being classified first so an exception which cannot be handled is raised as is instead of exceeding a limit.
+ * Result accepted by the result predicate goes through the same chain, skipping the exception {@link Handler}.
+ * Bulkhead, concurrency limiter and circuit breaker are also asked for the permission before every attempt, the bulkhead and
+ * concurrency permits being released as soon as the attempt completes (so not held during the backoff). A non blocking execution
+ * never waits for a permit, it is rejected right away instead.
+ * Backoff is skipped and the retry given up if the delay would end past the deadline, and cut to the remaining time of the timeout.
+ * Once a limit stops the retries, {@link RetriesExhaustedException} is raised instead of the last exception if the attempt history is kept.
+ * State is kept in plain fields, as an execution is never shared between threads at the same time.
+ * It is also the {@link RetryContext} passed to the exception {@link Handler} and to the retried operation.
+ */
+public final class Execution implements Handler, RetryContext {
+
+    // Trace prefixes, kept same as the corresponding limit handlers.
+    private static final String TIMEOUT_PREFIX = TimeoutHandler.class.getName() + ": ";
+    private static final String RETRY_COUNT_PREFIX = RetryCountHandler.class.getName() + ": ";
+    private static final String BACKOFF_PREFIX = ExpBackoffHandler.class.getName() + ": ";
+    private static final String RETRY_BUDGET_PREFIX = RetryBudget.class.getName() + ": ";
+    private static final String CIRCUIT_BREAKER_PREFIX = CircuitBreaker.class.getName() + ": ";
+    private static final String BULKHEAD_PREFIX = Bulkhead.class.getName() + ": ";
+    private static final String CONCURRENCY_LIMITER_PREFIX = ConcurrencyLimiter.class.getName() + ": ";
+    private static final String RESULT_PREFIX = Execution.class.getName() + ": ";
+
+    private final ExecutionPlan plan;
+    private final Handler handler;
+    private final Sleeper sleeper;
+
+    // Whether the attempts may wait for a bulkhead or concurrency permit, false when started on a shared thread (scheduler, timer).
+    private final boolean blocking;
+
+    // Number of attempts started so far.
+    private int attempt;
+
+    // Backoff delay in milliseconds before the current attempt, 0 for the first one.
+    private long delayInMillisec;
+
+    // Whether the current attempt was rejected by the bulkhead, concurrency limiter or circuit breaker, or its result could not be tested.
+    private boolean rejected;
+
+    // Whether the result of the current attempt was accepted by the result predicate.
+    private boolean retryableResult;
+
+    // Whether the current attempt holds a permit of the bulkhead.
+    private boolean bulkheadPermitted;
+
+    // Whether the current attempt holds a permit of the concurrency limiter.
+    private boolean permitted;
+
+    // Permission of the circuit breaker held by the current attempt, not recorded as an outcome yet, null if none.
+    private CircuitBreaker.Permission breakerPermission;
+
+    // Limit which stopped the retries, null until then.
+    private RetryListener.Limit exceededLimit;
+
+    // History of the failed attempts, created on the first failure if configured.
+    private AttemptHistory history;
+
+    // Exception of the last failed attempt, null before the first failure.
+    private Exception lastFailure;
+
+    // Start time in nanoseconds of the first attempt.
+    private long startTimeInNanos;
+
+    // Start time in nanoseconds of the current attempt, only tracked after the first one if listener, circuit breaker or concurrency limiter is configured.
+    private long attemptStartTimeInNanos;
+
+    Execution(ExecutionPlan plan, Handler handler, Sleeper sleeper, boolean blocking) {
+        ensureNotNull(handler, "Handler cannot be null.");
+        ensureNotNull(sleeper, "Sleeper cannot be null.");
+        this.plan = plan;
+        this.handler = handler;
+        this.sleeper = sleeper;
+        this.blocking = blocking;
+    }
+
+    @Override
+    public void handlePreExec() {
+        attempt++;
+        retryableResult = false;
+        if (attempt == 1) {
+            startTimeInNanos = plan.clock.nanoTime();
+            attemptStartTimeInNanos = startTimeInNanos;
+        } else if (plan.timed) {
+            attemptStartTimeInNanos = plan.clock.nanoTime();
+        }
+        // Rejected attempt is started as well, so the listener sees a call for every one given up.
+        if (plan.listener != null) {
+            plan.listener.onAttemptStarted(attempt);
+        }
+        acquireBulkheadPermit();
+        acquireConcurrencyPermit();
+        acquireCircuitBreakerPermission();
+        if (plan.retryBudget != null && attempt == 1) {
+            plan.retryBudget.recordRequest();
+        }
+        handler.handlePreExec(this);
+    }
+
+    /**
+     * Returns the time in nanoseconds the current attempt is allowed to run, i.e. the attempt timeout clamped to the
+     * remaining time until the deadline, or {@link Long#MAX_VALUE} if the attempt is not limited.
+     * @return
+     */
+    public long attemptTimeoutInNanos() {
+        long timeoutInNanos = plan.attemptTimeoutInNanos > 0 ? plan.attemptTimeoutInNanos : Long.MAX_VALUE;
+        if (plan.deadlineInNanos > 0) {
+            long remainingTimeInNanos = plan.deadlineInNanos - (plan.clock.nanoTime() - startTimeInNanos);
+            timeoutInNanos = Math.min(timeoutInNanos, Math.max(remainingTimeInNanos, 0));
+        }
+        return timeoutInNanos;
+    }
+
+    @Override
+    public int getAttempt() {
+        return attempt;
+    }
+
+    @Override
+    public long getElapsedTimeInNanos() {
+        return plan.clock.nanoTime() - startTimeInNanos;
+    }
+
+    @Override
+    public long getRemainingTimeInNanos() {
+        long elapsedTimeInNanos = getElapsedTimeInNanos();
+        long remainingTimeInNanos = Long.MAX_VALUE;
+        if (plan.timeoutInNanos > 0) {
+            remainingTimeInNanos = plan.timeoutInNanos - elapsedTimeInNanos;
+        }
+        if (plan.deadlineInNanos > 0) {
+            remainingTimeInNanos = Math.min(remainingTimeInNanos, plan.deadlineInNanos - elapsedTimeInNanos);
+        }
+        return Math.max(remainingTimeInNanos, 0);
+    }
+
+    @Override
+    public Exception getLastFailure() {
+        return lastFailure;
+    }
+
+    @Override
+    public Tracer getTracer() {
+        return plan.tracer;
+    }
+
+    @Override
+    public <T> T handlePostExec(T result) {
+        releaseBulkheadPermit();
+        // Retryable result returned after exceeding a limit was already recorded as a failure.
+        if (retryableResult) {
+            retryableResult = false;
+        } else if (plan.timed) {
+            long now = plan.clock.nanoTime();
+            if (permitted) {
+                permitted = false;
+                plan.concurrencyLimiter.release(now - attemptStartTimeInNanos, false);
+            }
+            if (breakerPermission != null) {
+                breakerPermission = null;
+                plan.circuitBreaker.onSuccess(now - attemptStartTimeInNanos);
+            }
+            if (plan.listener != null) {
+                plan.listener.onSuccess(attempt, now - startTimeInNanos, now - attemptStartTimeInNanos);
+            }
+        }
+        return handler.handlePostExec(this, result);
+    }
+
+    @Override
+    public void handleException(Exception e) throws Exception {
+        releaseBulkheadPermit();
+        releaseConcurrencyPermit(e);
+
+        // Call was rejected by the bulkhead, concurrency limiter or circuit breaker, so there is no outcome to handle.
+        if (rejected) {
+            throw e;
+        }
+        lastFailure = e;
+        recordFailure(e);
+
+        // Exception which cannot be handled is raised as is (by the exception handler), so it is never taken for an exhausted retry.
+        if (!handler.canHandle(e)) {
+            if (plan.listener != null) {
+                plan.listener.onFailure(attempt, plan.clock.nanoTime() - startTimeInNanos, e.getClass());
+            }
+            handler.handleException(this, e);
+            throw e;
+        }
+
+        // Make sure all the limit checks are successful, propagating the actual exception on the first limit fail.
+        if (!checkTimeout() || !checkDeadline() || !checkRetryCount()) {
+            throw exhausted(e);
+        }
+
+        // Exception handler raises the exception if it cannot be handled, so nothing is spent on a call which won't be retried.
+        handler.handleException(this, e);
+
+        // Backoff might have consumed the remaining time.
+        if (!checkCircuitBreaker() || !checkRetryBudget() || !backoff() || !checkTimeout()) {
+            throw exhausted(e);
+        }
+    }
+
+    /**
+     * Handle the exception of an attempt which was already completed by {@link #handlePostExec(Object)} (e.g. an upstream
+     * failing after delivering some elements) as the first attempt of this execution. No attempt is started for it, so no
+     * permit is acquired, no start is told to the listener and no request is recorded by the retry budget.
+     * @param e
+     * @throws Exception
+     */
+    public void handleResumedException(Exception e) throws Exception {
+        ensure(attempt == 0, "Resumed exception can only be the first attempt.");
+        attempt = 1;
+        startTimeInNanos = plan.clock.nanoTime();
+        attemptStartTimeInNanos = startTimeInNanos;
+        handleException(e);
+    }
+
+    @Override
+    public boolean canHandle(Exception e) {
+        return handler.canHandle(e);
+    }
+
+    /**
+     * Returns the {@link Hedging.Permits} of the hedges of the current attempt, taken from the bulkhead and concurrency limiter
+     * without waiting, as the permits of the attempt only cover its first call.
+     * @return
+     */
+    public Hedging.Permits hedgePermits() {
+        if (plan.bulkhead == null && plan.concurrencyLimiter == null) {
+            return Hedging.Permits.NONE;
+        }
+        return new Hedging.Permits() {
+            @Override
+            public boolean tryAcquire() {
+                if (plan.bulkhead != null && !plan.bulkhead.tryAcquireNow()) {
+                    return false;
+                }
+                if (plan.concurrencyLimiter != null && !plan.concurrencyLimiter.tryAcquireNow()) {
+                    if (plan.bulkhead != null) {
+                        plan.bulkhead.release();
+                    }
+                    return false;
+                }
+                return true;
+            }
+
+            @Override
+            public void release() {
+                if (plan.concurrencyLimiter != null) {
+                    plan.concurrencyLimiter.release();
+                }
+                if (plan.bulkhead != null) {
+                    plan.bulkhead.release();
+                }
+            }
+        };
+    }
+
+    /**
+     * Release the permits and the circuit breaker permission held by the current attempt without recording any outcome, when the caller gives up the attempt (e.g. cancels it or it fails with an {@link Error}).
+     */
+    public void handleCancel() {
+        releaseBulkheadPermit();
+        releaseConcurrencyPermit(null);
+        if (breakerPermission != null) {
+            plan.circuitBreaker.releasePermission(breakerPermission);
+            breakerPermission = null;
+        }
+    }
+
+    // Exception raised once a limit stops the retries, the actual exception unless the attempt history is kept.
+    private Exception exhausted(Exception e) {
+        if (history == null) {
+            return e;
+        }
+        return history.exhausted(e, exceededLimit, plan.clock.nanoTime() - startTimeInNanos);
+    }
+
+    /**
+     * Handle the result of the current attempt, returning whether the attempt has to be retried as the result is
+     * accepted by the provided result predicate.
+     * Retryable result goes through the same limits and backoff as an exception, without any exception being created,
+     * and is returned as is (after {@link #handlePostExec(Object)}) once a limit is exceeded.
+     * Exception raised by the predicate is propagated, and then rethrown as is by {@link #handleException(Exception)}
+     * as it is not a failure of the call.
+     * @param result
+     * @param resultPredicate null if the results are not to be retried
+     * @param <T>
+     * @return
+     */
+    public <T> boolean shouldRetry(T result, Predicate<? super T> resultPredicate) {
+        if (resultPredicate == null) {
+            return false;
+        }
+        try {
+            if (!resultPredicate.test(result)) {
+                return false;
+            }
+        } catch (RuntimeException | Error e) {
+            handleCancel();
+            rejected = true;
+            if (plan.listener != null && e instanceof RuntimeException) {
+                plan.listener.onFailure(attempt, plan.clock.nanoTime() - startTimeInNanos, ((RuntimeException) e).getClass());
+            }
+            throw e;
+        }
+
+        releaseBulkheadPermit();
+        releaseConcurrencyPermit(null);
+        retryableResult = true;
+        if (plan.tracer != null) {
+            plan.tracer.trace(RESULT_PREFIX + "Retryable result: " + result);
+        }
+        recordFailure(null);
+
+        return checkTimeout() && checkDeadline() && checkRetryCount()
+                && checkCircuitBreaker() && checkRetryBudget() && backoff() && checkTimeout();
+    }
+
+    private void recordFailure(Exception e) {
+        if (plan.timed) {
+            long now = plan.clock.nanoTime();
+            if (plan.attemptHistorySize > 0 && e != null) {
+                if (history == null) {
+                    history = new AttemptHistory(plan.attemptHistorySize, plan.stacklessExhaustion, plan.maxSuppressedFailures);
+                }
+                history.record(attempt, e, attemptStartTimeInNanos - startTimeInNanos, now - attemptStartTimeInNanos);
+            }
+            if (breakerPermission != null) {
+                breakerPermission = null;
+                plan.circuitBreaker.onFailure(now - attemptStartTimeInNanos);
+            }
+            if (plan.listener != null) {
+                plan.listener.onAttemptFailed(attempt, now - startTimeInNanos, now - attemptStartTimeInNanos, e != null ? e.getClass() : null);
+            }
+        }
+    }
+
+    private boolean checkTimeout() {
+        if (plan.timeoutInNanos == 0) {
+            return true;
+        }
+
+        long elapsedTimeInNanos = plan.clock.nanoTime() - startTimeInNanos;
+        if (elapsedTimeInNanos > plan.timeoutInNanos) {
+            exceededLimit = RetryListener.Limit.TIMEOUT;
+            if (plan.tracer != null) {
+                plan.tracer.trace(TIMEOUT_PREFIX + "Exceeded Timeout of " + Duration.ofNanos(plan.timeoutInNanos));
+            }
+            if (plan.listener != null) {
+                plan.listener.onLimitExceeded(attempt, elapsedTimeInNanos, RetryListener.Limit.TIMEOUT);
+            }
+            return false;
+        }
+
+        if (plan.tracer != null) {
+            plan.tracer.trace(TIMEOUT_PREFIX + "Remaining time: " + Duration.ofNanos(plan.timeoutInNanos - elapsedTimeInNanos));
+        }
+        return true;
+    }
+
+    private boolean checkDeadline() {
+        if (plan.deadlineInNanos == 0) {
+            return true;
+        }
+
+        long elapsedTimeInNanos = plan.clock.nanoTime() - startTimeInNanos;
+        if (elapsedTimeInNanos >= plan.deadlineInNanos) {
+            exceededLimit = RetryListener.Limit.TIMEOUT;
+            if (plan.tracer != null) {
+                plan.tracer.trace(TIMEOUT_PREFIX + "Exceeded Deadline of " + Duration.ofNanos(plan.deadlineInNanos));
+            }
+            if (plan.listener != null) {
+                plan.listener.onLimitExceeded(attempt, elapsedTimeInNanos, RetryListener.Limit.TIMEOUT);
+            }
+            return false;
+        }
+        return true;
+    }
+
+    private boolean checkRetryCount() {
+        if (plan.maxRetries == 0) {
+            return true;
+        }
+
+        if (attempt >= plan.maxRetries) {
+            exceededLimit = RetryListener.Limit.RETRY_COUNT;
+            if (plan.tracer != null) {
+                plan.tracer.trace(RETRY_COUNT_PREFIX + "Exceeded Max Retries: " + plan.maxRetries);
+            }
+            if (plan.listener != null) {
+                plan.listener.onLimitExceeded(attempt, plan.clock.nanoTime() - startTimeInNanos, RetryListener.Limit.RETRY_COUNT);
+            }
+            return false;
+        }
+
+        if (plan.tracer != null) {
+            plan.tracer.trace(RETRY_COUNT_PREFIX + "Retry Count: " + (attempt + 1) + "/" + plan.maxRetries);
+        }
+        return true;
+    }
+
+    private void acquireBulkheadPermit() {
+        if (plan.bulkhead == null) {
+            return;
+        }
+
+        if (!blocking) {
+            bulkheadPermitted = plan.bulkhead.tryAcquireNow();
+        } else {
+            try {
+                bulkheadPermitted = plan.bulkhead.tryAcquire();
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        if (!bulkheadPermitted) {
+            rejected = true;
+            if (plan.tracer != null) {
+                plan.tracer.trace(BULKHEAD_PREFIX + "Rejected call: " + plan.bulkhead);
+            }
+            if (plan.listener != null) {
+                plan.listener.onRejected(attempt, plan.clock.nanoTime() - startTimeInNanos, RetryListener.Limit.BULKHEAD_FULL);
+            }
+            throw new BulkheadFullException("Bulkhead is full.");
+        }
+    }
+
+    private void releaseBulkheadPermit() {
+        if (bulkheadPermitted) {
+            bulkheadPermitted = false;
+            plan.bulkhead.release();
+        }
+    }
+
+    private void acquireConcurrencyPermit() {
+        if (plan.concurrencyLimiter == null) {
+            return;
+        }
+
+        if (!blocking) {
+            permitted = plan.concurrencyLimiter.tryAcquireNow();
+        } else {
+            try {
+                permitted = plan.concurrencyLimiter.tryAcquire();
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        if (!permitted) {
+            rejected = true;
+            if (plan.tracer != null) {
+                plan.tracer.trace(CONCURRENCY_LIMITER_PREFIX + "Rejected call: " + plan.concurrencyLimiter);
+            }
+            if (plan.listener != null) {
+                plan.listener.onRejected(attempt, plan.clock.nanoTime() - startTimeInNanos, RetryListener.Limit.CONCURRENCY_LIMIT);
+            }
+            throw new ConcurrencyLimitExceededException("Concurrency limit exceeded.");
+        }
+
+        // Time spent waiting for the permit is not part of the round trip time.
+        attemptStartTimeInNanos = plan.clock.nanoTime();
+    }
+
+    private void releaseConcurrencyPermit(Exception e) {
+        if (!permitted) {
+            return;
+        }
+
+        permitted = false;
+        // Only the timed out attempts tell about the capacity, the others might have failed for any other reason.
+        if (e instanceof TimeoutException) {
+            plan.concurrencyLimiter.release(plan.clock.nanoTime() - attemptStartTimeInNanos, true);
+        } else {
+            plan.concurrencyLimiter.release();
+        }
+    }
+
+    private void acquireCircuitBreakerPermission() {
+        if (plan.circuitBreaker == null) {
+            return;
+        }
+        breakerPermission = plan.circuitBreaker.tryAcquirePermission();
+        if (breakerPermission != null) {
+            return;
+        }
+
+        rejected = true;
+        if (plan.tracer != null) {
+            plan.tracer.trace(CIRCUIT_BREAKER_PREFIX + "Rejected call: " + plan.circuitBreaker);
+        }
+        if (plan.listener != null) {
+            plan.listener.onRejected(attempt, plan.clock.nanoTime() - startTimeInNanos, RetryListener.Limit.CIRCUIT_OPEN);
+        }
+        throw new CircuitBreakerOpenException("Circuit breaker is open.");
+    }
+
+    private boolean checkCircuitBreaker() {
+        // Don't wait for a retry which would be rejected anyway.
+        if (plan.circuitBreaker == null || !plan.circuitBreaker.isOpen()) {
+            return true;
+        }
+
+        exceededLimit = RetryListener.Limit.CIRCUIT_OPEN;
+        if (plan.tracer != null) {
+            plan.tracer.trace(CIRCUIT_BREAKER_PREFIX + "Circuit breaker is open: " + plan.circuitBreaker);
+        }
+        if (plan.listener != null) {
+            plan.listener.onLimitExceeded(attempt, plan.clock.nanoTime() - startTimeInNanos, RetryListener.Limit.CIRCUIT_OPEN);
+        }
+        return false;
+    }
+
+    private boolean checkRetryBudget() {
+        if (plan.retryBudget == null || plan.retryBudget.tryAcquireRetry()) {
+            return true;
+        }
+
+        exceededLimit = RetryListener.Limit.RETRY_BUDGET;
+        if (plan.tracer != null) {
+            plan.tracer.trace(RETRY_BUDGET_PREFIX + "Exceeded Retry Budget: " + plan.retryBudget);
+        }
+        if (plan.listener != null) {
+            plan.listener.onLimitExceeded(attempt, plan.clock.nanoTime() - startTimeInNanos, RetryListener.Limit.RETRY_BUDGET);
+        }
+        return false;
+    }
+
+    private boolean backoff() {
+        long delay;
+        if (plan.backoffStrategy != null) {
+            delay = plan.backoffStrategy.delay(attempt, delayInMillisec);
+        } else if (plan.policy.hasBackoff()) {
+            delay = TimeUnit.NANOSECONDS.toMillis(plan.policy.getDelayInNanos(attempt));
+        } else {
+            return true;
+        }
+        delayInMillisec = delay;
+
+        // Don't wait just to find out the deadline is over, the next attempt would have no time left to run.
+        if (plan.deadlineInNanos > 0
+                && TimeUnit.MILLISECONDS.toNanos(delay) >= plan.deadlineInNanos - (plan.clock.nanoTime() - startTimeInNanos)) {
+            exceededLimit = RetryListener.Limit.TIMEOUT;
+            if (plan.tracer != null) {
+                plan.tracer.trace(TIMEOUT_PREFIX + "Backoff of " + Duration.ofMillis(delay) + " exceeds the deadline");
+            }
+            if (plan.listener != null) {
+                plan.listener.onLimitExceeded(attempt, plan.clock.nanoTime() - startTimeInNanos, RetryListener.Limit.TIMEOUT);
+            }
+            return false;
+        }
+
+        // Never sleep past the timeout, the delay ends on it at the latest and the timeout is checked once awake as before.
+        long remainingTimeInMillisec = ceilMillis(getRemainingTimeInNanos());
+        if (delay > remainingTimeInMillisec) {
+            if (plan.tracer != null) {
+                plan.tracer.trace(TIMEOUT_PREFIX + "Backoff of " + Duration.ofMillis(delay) + " cut to the remaining time");
+            }
+            delay = remainingTimeInMillisec;
+        }
+
+        try {
+            if (plan.tracer != null) {
+                plan.tracer.trace(BACKOFF_PREFIX + "Sleeping for " + Duration.ofMillis(delay));
+            }
+            if (plan.listener != null) {
+                plan.listener.onBackoff(attempt, delay);
+            }
+            if (history != null) {
+                history.recordDelay(delay);
+            }
+            sleeper.sleep(delay);
+        } catch (InterruptedException ie) {
+            if (plan.tracer != null) {
+                plan.tracer.trace(BACKOFF_PREFIX + "Sleeping thread interrupted: " + ie.getMessage());
+            }
+            // Preserve the interrupt status but propagate the actual exception, as the limit handlers do.
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        return true;
+    }
+
+    private static long ceilMillis(long nanos) {
+        long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+        return TimeUnit.MILLISECONDS.toNanos(millis) < nanos ? millis + 1 : millis;
+    }
+}
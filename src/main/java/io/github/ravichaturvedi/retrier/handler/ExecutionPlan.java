@@ -0,0 +1,178 @@
+/*
+ * Copyright 2017 The Retrier AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.retrier.handler;
+
+
+import io.github.ravichaturvedi.retrier.BackoffStrategy;
+import io.github.ravichaturvedi.retrier.Clock;
+import io.github.ravichaturvedi.retrier.Config;
+import io.github.ravichaturvedi.retrier.Handler;
+import io.github.ravichaturvedi.retrier.RetryListener;
+import io.github.ravichaturvedi.retrier.RetryPolicy;
+import io.github.ravichaturvedi.retrier.Sleeper;
+import io.github.ravichaturvedi.retrier.Tracer;
+import io.github.ravichaturvedi.retrier.breaker.CircuitBreaker;
+import io.github.ravichaturvedi.retrier.budget.RetryBudget;
+import io.github.ravichaturvedi.retrier.bulkhead.Bulkhead;
+import io.github.ravichaturvedi.retrier.concurrency.ConcurrencyLimiter;
+
+import java.util.function.Predicate;
+
+import static io.github.ravichaturvedi.retrier.helper.Ensurer.ensure;
+import static io.github.ravichaturvedi.retrier.helper.Ensurer.ensureNotNull;
+
+/**
+ * {@link ExecutionPlan} is the immutable form of the {@link Config}, compiled once per {@link io.github.ravichaturvedi.retrier.Retrier}.
+ * <p>
+ * It applies the same limits as {@link io.github.ravichaturvedi.retrier.handler.limit.TimeoutHandler},
+ * {@link io.github.ravichaturvedi.retrier.handler.limit.RetryCountHandler} and {@link io.github.ravichaturvedi.retrier.handler.limit.ExpBackoffHandler},
+ * but keeps the per-call state in a single {@link Execution} so nothing else is allocated per retry call.
+ */
+public final class ExecutionPlan {
+
+    // Limits and exponential backoff of the config.
+    final RetryPolicy policy;
+
+    // Timeout in nanoseconds, 0 if not configured.
+    final long timeoutInNanos;
+
+    // Max duration of an attempt in nanoseconds, 0 if not configured.
+    final long attemptTimeoutInNanos;
+
+    // Deadline of the whole retry in nanoseconds, 0 if not configured.
+    final long deadlineInNanos;
+
+    // Max number of retries, 0 if not configured.
+    final int maxRetries;
+
+    // Strategy to compute the backoff delay, null if not configured or if the policy has the exponential backoff.
+    final BackoffStrategy backoffStrategy;
+
+    // Budget of the retries shared by all the calls, null if not configured.
+    final RetryBudget retryBudget;
+
+    // Circuit breaker shared by all the calls, null if not configured.
+    final CircuitBreaker circuitBreaker;
+
+    // Bulkhead shared by all the calls, null if not configured.
+    final Bulkhead bulkhead;
+
+    // Concurrency limiter shared by all the calls, null if not configured.
+    final ConcurrencyLimiter concurrencyLimiter;
+
+    // Predicate of the results to be retried, null if not configured.
+    final Predicate<Object> resultPredicate;
+
+    // Size of the attempt history of every execution, 0 if not configured.
+    final int attemptHistorySize;
+
+    final boolean stacklessExhaustion;
+
+    final int maxSuppressedFailures;
+
+    // Clock measuring the elapsed time.
+    final Clock clock;
+
+    // Sleeper of the blocking retries.
+    private final Sleeper sleeper;
+
+    // Tracer to trace the execution, null if not configured.
+    final Tracer tracer;
+
+    // Listener of the execution events, null if not configured.
+    final RetryListener listener;
+
+    // Whether every attempt needs to be timed, for the listener, circuit breaker, concurrency limiter or attempt history.
+    final boolean timed;
+
+    public ExecutionPlan(Config config) {
+        ensureNotNull(config, "Config cannot be null.");
+
+        if (config.attemptHistorySize != null) {
+            ensure(config.attemptHistorySize > 0, "Attempt history size should be positive.");
+        }
+        if (config.maxSuppressedFailures != null) {
+            ensure(config.maxSuppressedFailures >= 0, "Max suppressed failures should not be negative.");
+        }
+
+        this.policy = new RetryPolicy(config);
+        this.timeoutInNanos = policy.getTimeoutInNanos();
+        this.attemptTimeoutInNanos = policy.getAttemptTimeoutInNanos();
+        this.deadlineInNanos = policy.getDeadlineInNanos();
+        this.maxRetries = policy.getMaxRetries();
+        this.backoffStrategy = config.backoffStrategy;
+        this.retryBudget = config.retryBudget;
+        this.circuitBreaker = config.circuitBreaker;
+        this.bulkhead = config.bulkhead;
+        this.concurrencyLimiter = config.concurrencyLimiter;
+        this.resultPredicate = config.resultPredicate;
+        this.attemptHistorySize = config.attemptHistorySize != null ? config.attemptHistorySize : 0;
+        this.stacklessExhaustion = config.stacklessExhaustion;
+        this.maxSuppressedFailures = config.maxSuppressedFailures != null ? config.maxSuppressedFailures : 0;
+        this.clock = config.clock != null ? config.clock : Clock.SYSTEM;
+        this.sleeper = config.sleeper != null ? config.sleeper : Sleeper.THREAD;
+        this.tracer = config.tracer;
+        this.listener = config.listener;
+        this.timed = listener != null || circuitBreaker != null || concurrencyLimiter != null || attemptHistorySize > 0;
+    }
+
+    /**
+     * Returns the {@link RetryPolicy} of the limits and exponential backoff.
+     * @return
+     */
+    public RetryPolicy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * Returns the predicate of the results to be retried, null if not configured.
+     * @return
+     */
+    public Predicate<Object> getResultPredicate() {
+        return resultPredicate;
+    }
+
+    /**
+     * Returns a new {@link Execution} to keep track of a single blocking retry call, handling the exceptions with provided {@link Handler}
+     * and waiting out the backoff delay with the configured {@link Sleeper}.
+     * @param handler
+     * @return
+     */
+    public Execution newExecution(Handler handler) {
+        return newExecution(handler, sleeper);
+    }
+
+    /**
+     * Returns a new {@link Execution} to keep track of a single retry call, handling the exceptions with provided {@link Handler}.
+     * @param handler
+     * @param sleeper
+     * @return
+     */
+    public Execution newExecution(Handler handler, Sleeper sleeper) {
+        return new Execution(this, handler, sleeper, true);
+    }
+
+    /**
+     * Returns a new {@link Execution} to keep track of a single retry call whose attempts are started on a shared thread
+     * (e.g. the scheduler of the async retries), so they never wait for a bulkhead or concurrency permit.
+     * @param handler
+     * @param sleeper
+     * @return
+     */
+    public Execution newNonBlockingExecution(Handler handler, Sleeper sleeper) {
+        return new Execution(this, handler, sleeper, false);
+    }
+}
@@ -17,7 +17,8 @@ package io.github.ravichaturvedi.retrier.handler;
 
 
 import io.github.ravichaturvedi.retrier.Handler;
-import io.github.ravichaturvedi.retrier.ThreadLocalTracer;
+import io.github.ravichaturvedi.retrier.RetryContext;
+import io.github.ravichaturvedi.retrier.Tracer;
 
 import java.util.function.Supplier;
 
@@ -26,18 +27,26 @@ import java.util.function.Supplier;
  */
 public abstract class Traceable {
 
-    // Prefix to be put in while tracking (helping in keeping track of which class is getting traced.)
-    private final String logPrefix;
-
-    public Traceable() {
-        this.logPrefix = String.format("%s: ", this.getClass().getName());
+    /**
+     * Delegates the trace calls to {@link io.github.ravichaturvedi.retrier.ThreadLocalTracer}, prefixed with the class name (helping in keeping track of which class is getting traced.)
+     * Message is only created if there is a {@link Tracer} for the current thread.
+     * @param msgSupplier
+     * @deprecated The retrier doesn't set the thread tracer, use {@link #trace(Tracer, Supplier)} with {@link RetryContext#getTracer()}.
+     */
+    @Deprecated
+    protected void trace(Supplier<String> msgSupplier) {
+        trace(io.github.ravichaturvedi.retrier.ThreadLocalTracer.getTracer(), msgSupplier);
     }
 
     /**
-     * Delegates the trace calls to {@link ThreadLocalTracer}.
+     * Delegates the trace calls to the provided {@link Tracer} (e.g. of the {@link RetryContext}), prefixed with the class name.
+     * Message is only created if the tracer is not null.
+     * @param tracer
      * @param msgSupplier
      */
-    protected void trace(Supplier<String> msgSupplier) {
-        ThreadLocalTracer.trace(logPrefix + msgSupplier.get());
+    protected void trace(Tracer tracer, Supplier<String> msgSupplier) {
+        if (tracer != null) {
+            tracer.trace(getClass().getName() + ": " + msgSupplier.get());
+        }
     }
 }
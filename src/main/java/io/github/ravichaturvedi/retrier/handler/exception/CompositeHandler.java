@@ -17,6 +17,7 @@ package io.github.ravichaturvedi.retrier.handler.exception;
 
 
 import io.github.ravichaturvedi.retrier.Handler;
+import io.github.ravichaturvedi.retrier.RetryContext;
 
 import java.util.List;
 import java.util.stream.Stream;
@@ -41,11 +42,20 @@ public class CompositeHandler implements Handler {
 
     @Override
     public void handleException(Exception e) throws Exception {
+        handleException(null, e);
+    }
+
+    @Override
+    public void handleException(RetryContext context, Exception e) throws Exception {
         // Try to get the exception handled by all the exception handler and
         // short-circuit on the first successful handling, to provide the same semantics as try-catch-catch blocks.
         for (Handler handler : handlers) {
             try {
-                handler.handleException(e);
+                if (context == null) {
+                    handler.handleException(e);
+                } else {
+                    handler.handleException(context, e);
+                }
                 return;
             } catch (Exception ex) {
                 // Do nothing, as we don't want to propagate the exception thrown by the Handlers.
@@ -55,4 +65,14 @@ public class CompositeHandler implements Handler {
         // If none of the handler handles the exception then propagate it.
         throw e;
     }
+
+    @Override
+    public boolean canHandle(Exception e) {
+        for (Handler handler : handlers) {
+            if (handler.canHandle(e)) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
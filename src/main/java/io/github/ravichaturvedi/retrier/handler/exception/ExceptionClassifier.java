@@ -0,0 +1,101 @@
+/*
+ * Copyright 2017 The Retrier AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.retrier.handler.exception;
+
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static io.github.ravichaturvedi.retrier.helper.Ensurer.ensureNotNull;
+
+/**
+ * {@link ExceptionClassifier} finds the provided {@link Exception} class handling the thrown exception (or its nested causes).
+ * <p>
+ * Result is cached per thrown exception class, so the `isAssignableFrom` checks are done only once per class,
+ * and the nested causes are walked without allocation, up to {@link #MAX_NESTED_DEPTH} and stopping on a cycle.
+ * The cache is kept by the classifier, so by its (immutable and usually long lived) handler, and goes away with it instead of
+ * pinning the exception classes (and their class loaders) for the life of the JVM.
+ */
+public final class ExceptionClassifier {
+
+    // Max number of exceptions looked at in the cause chain.
+    public static final int MAX_NESTED_DEPTH = 64;
+
+    private final boolean nested;
+
+    // Handling exception class (null if not handled) keyed by the thrown exception class.
+    private final HandlingClasses handlingClasses;
+
+    public ExceptionClassifier(boolean nested, List<Class<? extends Exception>> exceptionClasses) {
+        ensureNotNull(exceptionClasses, "Exception classes cannot be null.");
+        exceptionClasses.forEach(cls -> ensureNotNull(cls, "Exception class cannot be null."));
+        this.nested = nested;
+        this.handlingClasses = new HandlingClasses(new ArrayList<>(exceptionClasses));
+    }
+
+    /**
+     * Returns the provided exception class handling the given exception, or null if it cannot be handled.
+     * @param e
+     * @return
+     */
+    public Class<? extends Exception> classify(Exception e) {
+        if (!nested) {
+            return handlingClasses.get(e.getClass());
+        }
+
+        // Walk the causes, moving `slow` at half the speed so that it meets `current` if the chain has a cycle.
+        Throwable current = e;
+        Throwable slow = e;
+        for (int depth = 0; depth < MAX_NESTED_DEPTH && current instanceof Exception; depth++) {
+            Class<? extends Exception> handlingClass = handlingClasses.get(current.getClass());
+            if (handlingClass != null) {
+                return handlingClass;
+            }
+
+            current = current.getCause();
+            if ((depth & 1) == 1) {
+                slow = slow.getCause();
+            }
+            if (current == slow) {
+                return null;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * {@link HandlingClasses} is the cache of the handling exception class of the provided exception classes.
+     */
+    private static final class HandlingClasses extends ClassValue<Class<? extends Exception>> {
+
+        private final List<Class<? extends Exception>> exceptionClasses;
+
+        HandlingClasses(List<Class<? extends Exception>> exceptionClasses) {
+            this.exceptionClasses = exceptionClasses;
+        }
+
+        @Override
+        protected Class<? extends Exception> computeValue(Class<?> type) {
+            for (Class<? extends Exception> exceptionClass : exceptionClasses) {
+                if (exceptionClass.isAssignableFrom(type)) {
+                    return exceptionClass;
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -16,14 +16,14 @@
 package io.github.ravichaturvedi.retrier.handler.exception;
 
 import io.github.ravichaturvedi.retrier.Handler;
+import io.github.ravichaturvedi.retrier.RetryContext;
 import io.github.ravichaturvedi.retrier.Runner;
+import io.github.ravichaturvedi.retrier.Tracer;
 import io.github.ravichaturvedi.retrier.handler.Traceable;
 
-import java.util.List;
+import java.util.Collections;
 
 import static io.github.ravichaturvedi.retrier.helper.Ensurer.ensureNotNull;
-import static io.github.ravichaturvedi.retrier.helper.Exceptions.getNestedExceptionClasses;
-import static java.util.Collections.singletonList;
 
 /**
  * {@link ExceptionRunnerHandler} is a {@link Handler} implementation to run the {@link Runner} when provided exception occurs.
@@ -32,28 +32,44 @@ public class ExceptionRunnerHandler extends Traceable implements Handler {
 
     private final Class<? extends Exception> exceptionClass;
     private final Runner runner;
-    private final boolean nested;
+
+    // Classifier of the exception to be handled.
+    private final ExceptionClassifier classifier;
 
     public ExceptionRunnerHandler(boolean nested, Class<? extends Exception> exceptionClass, Runner runner) {
         ensureNotNull(exceptionClass, "Exception class cannot be null.");
         ensureNotNull(runner, "Runner cannot be null.");
         this.exceptionClass = exceptionClass;
         this.runner = runner;
-        this.nested = nested;
+        this.classifier = new ExceptionClassifier(nested, Collections.singletonList(exceptionClass));
     }
 
     @Override
+    @SuppressWarnings("deprecation")
     public void handleException(Exception e) throws Exception {
-        List<Class<? extends Exception>> exceptionClasses = nested ? getNestedExceptionClasses(e): singletonList(e.getClass());
+        // Without the context, fallback to the tracer of the current thread, if set by the caller.
+        handleException(io.github.ravichaturvedi.retrier.ThreadLocalTracer.getTracer(), e);
+    }
+
+    @Override
+    public void handleException(RetryContext context, Exception e) throws Exception {
+        handleException(context.getTracer(), e);
+    }
+
+    @Override
+    public boolean canHandle(Exception e) {
+        return classifier.classify(e) != null;
+    }
 
+    private void handleException(Tracer tracer, Exception e) throws Exception {
         // If not able to handle the exception then raise it.
-        if (!exceptionClasses.stream().map(this.exceptionClass::isAssignableFrom).findAny().isPresent()) {
-            trace(() -> String.format("Unknown Exception: %s", e));
+        if (classifier.classify(e) == null) {
+            trace(tracer, () -> String.format("Unknown Exception: %s", e));
             throw e;
         }
 
         // Otherwise run the provided runner.
-        trace(() -> String.format("Caught Exception: '%s' by '%s'", e, exceptionClass));
+        trace(tracer, () -> String.format("Caught Exception: '%s' by '%s'", e, exceptionClass));
         this.runner.run();
     }
 }
@@ -17,17 +17,14 @@ package io.github.ravichaturvedi.retrier.handler.exception;
 
 
 import io.github.ravichaturvedi.retrier.Handler;
+import io.github.ravichaturvedi.retrier.RetryContext;
+import io.github.ravichaturvedi.retrier.Tracer;
 import io.github.ravichaturvedi.retrier.handler.Traceable;
 
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
-import java.util.stream.Stream;
 
-import static io.github.ravichaturvedi.retrier.helper.Ensurer.ensureNotNull;
-import static io.github.ravichaturvedi.retrier.helper.Exceptions.getNestedExceptionClasses;
-import static java.util.Arrays.asList;
-import static java.util.Collections.singletonList;
-import static java.util.Collections.unmodifiableList;
+import static io.github.ravichaturvedi.retrier.helper.Ensurer.ensure;
 
 /**
  * {@link ExceptionsHandler} is a {@link Handler} implementation to catch the provided {@link Exception}s while retrying.
@@ -37,29 +34,45 @@ import static java.util.Collections.unmodifiableList;
  */
 public class ExceptionsHandler extends Traceable implements Handler {
 
-    // Exception classes to be handled.
-    private final List<Class<? extends Exception>> exceptionClasses;
-    private final boolean nested;
+    // Classifier of the exceptions to be handled.
+    private final ExceptionClassifier classifier;
 
+    @SafeVarargs
     public ExceptionsHandler(boolean nested, Class<? extends Exception>... exceptionClasses) {
-        Stream.of(exceptionClasses).forEach(cls -> ensureNotNull(cls, "Exception class cannot be null."));
-        this.exceptionClasses = unmodifiableList(asList(exceptionClasses));
-        this.nested = nested;
+        ensure(exceptionClasses != null, "Exception classes cannot be null.");
+        List<Class<? extends Exception>> classes = new ArrayList<>(exceptionClasses.length);
+        for (Class<? extends Exception> exceptionClass : exceptionClasses) {
+            classes.add(exceptionClass);
+        }
+        this.classifier = new ExceptionClassifier(nested, classes);
     }
 
     @Override
+    @SuppressWarnings("deprecation")
     public void handleException(Exception e) throws Exception {
-        List<Class<? extends Exception>> exceptionClasses = nested ? getNestedExceptionClasses(e): singletonList(e.getClass());
-        Optional<Class<? extends Exception>> classHandlingException = exceptionClasses.stream()
-                .filter(cls -> exceptionClasses.stream().map(cls::isAssignableFrom).findAny().isPresent())
-                .findAny();
+        // Without the context, fallback to the tracer of the current thread, if set by the caller.
+        handleException(io.github.ravichaturvedi.retrier.ThreadLocalTracer.getTracer(), e);
+    }
+
+    @Override
+    public void handleException(RetryContext context, Exception e) throws Exception {
+        handleException(context.getTracer(), e);
+    }
+
+    @Override
+    public boolean canHandle(Exception e) {
+        return classifier.classify(e) != null;
+    }
+
+    private void handleException(Tracer tracer, Exception e) throws Exception {
+        Class<? extends Exception> classHandlingException = classifier.classify(e);
 
         // Raise the incoming exception, if the exception cannot be handled by any of the exception classes provided in constructor.
-        if (!classHandlingException.isPresent()) {
-            trace(() -> String.format("Unknown Exception: %s", e));
+        if (classHandlingException == null) {
+            trace(tracer, () -> String.format("Unknown Exception: %s", e));
             throw e;
         }
 
-        trace(() -> String.format("Caught Exception: '%s' by '%s'", e, classHandlingException.get()));
+        trace(tracer, () -> String.format("Caught Exception: '%s' by '%s'", e, classHandlingException));
     }
 }
@@ -16,6 +16,7 @@
 package io.github.ravichaturvedi.retrier.handler.limit;
 
 import io.github.ravichaturvedi.retrier.Handler;
+import io.github.ravichaturvedi.retrier.RetryContext;
 
 import java.util.List;
 import java.util.stream.Stream;
@@ -44,11 +45,20 @@ public class CompositeHandler implements Handler {
 
     @Override
     public void handleException(Exception e) throws Exception {
+        handleException(null, e);
+    }
+
+    @Override
+    public void handleException(RetryContext context, Exception e) throws Exception {
         // Make sure all the limit checks are successful.
         // Propagate the exception on the first limit fail.
         for (Handler handler : handlers) {
             try {
-                handler.handleException(e);
+                if (context == null) {
+                    handler.handleException(e);
+                } else {
+                    handler.handleException(context, e);
+                }
                 continue;
             } catch (Exception ex) {
                 // Do nothing, as we don't want to propagate the exception thrown by the Handlers.
@@ -16,12 +16,16 @@
 package io.github.ravichaturvedi.retrier.handler.limit;
 
 import io.github.ravichaturvedi.retrier.Handler;
+import io.github.ravichaturvedi.retrier.RetryContext;
+import io.github.ravichaturvedi.retrier.Sleeper;
+import io.github.ravichaturvedi.retrier.Tracer;
 import io.github.ravichaturvedi.retrier.handler.Traceable;
 
 import java.time.Duration;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static io.github.ravichaturvedi.retrier.helper.Ensurer.ensure;
+import static io.github.ravichaturvedi.retrier.helper.Ensurer.ensureNotNull;
 
 /**
  * {@link ExpBackoffHandler} is a {@link Handler} implementation to handle using exponential backoff delay.
@@ -37,15 +41,24 @@ public class ExpBackoffHandler extends Traceable implements Handler {
     // Keeping track of retry count to compute exponential backoff
     private final AtomicInteger retryCount;
 
-    public ExpBackoffHandler(long initialDelayInMillisec, Long maxDelayInMillisec) {
+    // Sleeper to wait out the computed delay
+    private final Sleeper sleeper;
+
+    public ExpBackoffHandler(long initialDelayInMillisec, Long maxDelayInMillisec, Sleeper sleeper) {
         ensure(initialDelayInMillisec > 0, "Initial delay should be positive.");
         if (maxDelayInMillisec != null) {
             ensure(maxDelayInMillisec > 0, "Max delay should be positive.");
         }
+        ensureNotNull(sleeper, "Sleeper cannot be null.");
 
         this.initialDelayInMillisec = initialDelayInMillisec;
         this.maxDelayInMillisec = maxDelayInMillisec;
         this.retryCount = new AtomicInteger(0);
+        this.sleeper = sleeper;
+    }
+
+    public ExpBackoffHandler(long initialDelayInMillisec, Long maxDelayInMillisec) {
+        this(initialDelayInMillisec, maxDelayInMillisec, Sleeper.THREAD);
     }
 
     public ExpBackoffHandler(long initialDelayInMillisec) {
@@ -58,35 +71,50 @@ public class ExpBackoffHandler extends Traceable implements Handler {
     }
 
     @Override
+    @SuppressWarnings("deprecation")
     public void handleException(Exception e) throws Exception {
+        handleException(io.github.ravichaturvedi.retrier.ThreadLocalTracer.getTracer());
+    }
+
+    @Override
+    public void handleException(RetryContext context, Exception e) throws Exception {
+        handleException(context.getTracer());
+    }
+
+    private void handleException(Tracer tracer) throws Exception {
         if (maxDelayInMillisec != null) {
-            handleWithMaxDelay();
+            handleWithMaxDelay(tracer);
             return;
         }
 
-        sleep(delay());
+        sleep(tracer, delay());
     }
 
-    private void handleWithMaxDelay() throws Exception {
+    private void handleWithMaxDelay(Tracer tracer) throws Exception {
         long delay = delay();
         if (delay > maxDelayInMillisec) {
-            sleep(maxDelayInMillisec);
+            sleep(tracer, maxDelayInMillisec);
             return;
         }
 
-        sleep(delay);
+        sleep(tracer, delay);
     }
 
     private long delay() {
-        return initialDelayInMillisec * (long)Math.pow(2, retryCount.get() - 1);
+        // Saturate instead of overflowing once the doubling doesn't fit a long anymore.
+        int shift = retryCount.get() - 1;
+        if (shift >= Long.numberOfLeadingZeros(initialDelayInMillisec)) {
+            return Long.MAX_VALUE;
+        }
+        return initialDelayInMillisec << shift;
     }
 
-    private void sleep(long durationInMillisec) throws Exception {
+    private void sleep(Tracer tracer, long durationInMillisec) throws Exception {
         try {
-            trace(() -> String.format("Sleeping for %s", Duration.ofMillis(durationInMillisec)));
-            Thread.sleep(durationInMillisec);
+            trace(tracer, () -> String.format("Sleeping for %s", Duration.ofMillis(durationInMillisec)));
+            sleeper.sleep(durationInMillisec);
         } catch (InterruptedException e) {
-            trace(() -> String.format("Sleeping thread interrupted: %s", e.getMessage()));
+            trace(tracer, () -> String.format("Sleeping thread interrupted: %s", e.getMessage()));
             throw e;
         }
     }
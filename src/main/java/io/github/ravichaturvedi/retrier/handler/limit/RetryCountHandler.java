@@ -17,6 +17,8 @@ package io.github.ravichaturvedi.retrier.handler.limit;
 
 
 import io.github.ravichaturvedi.retrier.Handler;
+import io.github.ravichaturvedi.retrier.RetryContext;
+import io.github.ravichaturvedi.retrier.Tracer;
 import io.github.ravichaturvedi.retrier.handler.Traceable;
 
 import java.util.concurrent.atomic.AtomicInteger;
@@ -47,12 +49,22 @@ public class RetryCountHandler extends Traceable implements Handler {
     }
 
     @Override
+    @SuppressWarnings("deprecation")
     public void handleException(Exception e) throws Exception {
+        handleException(io.github.ravichaturvedi.retrier.ThreadLocalTracer.getTracer(), e);
+    }
+
+    @Override
+    public void handleException(RetryContext context, Exception e) throws Exception {
+        handleException(context.getTracer(), e);
+    }
+
+    private void handleException(Tracer tracer, Exception e) throws Exception {
         if (retryCount.get() >= maxRetries) {
-            trace(() -> String.format("Exceeded Max Retries: %s", maxRetries));
+            trace(tracer, () -> String.format("Exceeded Max Retries: %s", maxRetries));
             throw e;
         }
 
-        trace(() -> String.format("Retry Count: %s/%s", retryCount.get() + 1, maxRetries));
+        trace(tracer, () -> String.format("Retry Count: %s/%s", retryCount.get() + 1, maxRetries));
     }
 }
@@ -16,9 +16,12 @@
 package io.github.ravichaturvedi.retrier.handler.limit;
 
 import io.github.ravichaturvedi.retrier.Handler;
+import io.github.ravichaturvedi.retrier.RetryContext;
+import io.github.ravichaturvedi.retrier.Tracer;
 import io.github.ravichaturvedi.retrier.handler.Traceable;
 
 import java.time.Duration;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
 import static io.github.ravichaturvedi.retrier.helper.Ensurer.ensure;
@@ -33,28 +36,38 @@ public class TimeoutHandler extends Traceable implements Handler {
     // Timeout available for the handler.
     private final long timeoutInMillisec;
 
-    // Keeping track of the start time in millisecond.
-    private final AtomicLong startTimeInMillisec;
+    // Keeping track of the start time in nanoseconds (monotonic, so unaffected by the wall clock adjustments), Long.MIN_VALUE until started.
+    private final AtomicLong startTimeInNanos;
 
     public TimeoutHandler(long timeoutInMillisec) {
         ensure(timeoutInMillisec > 0, "Timeout should be positive.");
         this.timeoutInMillisec = timeoutInMillisec;
-        this.startTimeInMillisec = new AtomicLong(0);
+        this.startTimeInNanos = new AtomicLong(Long.MIN_VALUE);
     }
 
     @Override
     public void handlePreExec() {
-        startTimeInMillisec.compareAndSet(0, System.currentTimeMillis());
+        startTimeInNanos.compareAndSet(Long.MIN_VALUE, System.nanoTime());
     }
 
     @Override
+    @SuppressWarnings("deprecation")
     public void handleException(Exception e) throws Exception {
-        long elapsedTimeInMillisec = System.currentTimeMillis() - startTimeInMillisec.get();
+        handleException(io.github.ravichaturvedi.retrier.ThreadLocalTracer.getTracer(), e);
+    }
+
+    @Override
+    public void handleException(RetryContext context, Exception e) throws Exception {
+        handleException(context.getTracer(), e);
+    }
+
+    private void handleException(Tracer tracer, Exception e) throws Exception {
+        long elapsedTimeInMillisec = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTimeInNanos.get());
         if (elapsedTimeInMillisec > timeoutInMillisec) {
-            trace(() -> String.format("Exceeded Timeout of %s", Duration.ofMillis(timeoutInMillisec)));
+            trace(tracer, () -> String.format("Exceeded Timeout of %s", Duration.ofMillis(timeoutInMillisec)));
             throw e;
         }
 
-        trace(() -> String.format("Remaining time: %s", Duration.ofMillis(timeoutInMillisec - elapsedTimeInMillisec)));
+        trace(tracer, () -> String.format("Remaining time: %s", Duration.ofMillis(timeoutInMillisec - elapsedTimeInMillisec)));
     }
 }
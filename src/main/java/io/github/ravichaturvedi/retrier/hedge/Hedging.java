@@ -0,0 +1,318 @@
+/*
+ * Copyright 2017 The Retrier AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.retrier.hedge;
+
+
+import io.github.ravichaturvedi.retrier.Clock;
+import io.github.ravichaturvedi.retrier.metrics.LatencyHistogram;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+import static io.github.ravichaturvedi.retrier.helper.Ensurer.ensure;
+import static io.github.ravichaturvedi.retrier.helper.Ensurer.ensureNotNull;
+import static io.github.ravichaturvedi.retrier.helper.Exceptions.getCause;
+import static io.github.ravichaturvedi.retrier.helper.Schedulers.defaultExecutor;
+
+/**
+ * {@link Hedging} runs an attempt as a group of speculative parallel calls to cut the tail latency.
+ * <p>
+ * If the call has not completed within the hedge delay, another call is started in parallel, up to the max hedges.
+ * First successful call wins and the others are cancelled (interrupted). If all the started calls fail, the group fails with
+ * the last failure, which is then handled by the retrier like any failed attempt. It fails right away with a failure which is not
+ * retryable, and every hedge takes its own permits (of the bulkhead and concurrency limiter of the retrier) while it runs.
+ * <p>
+ * Hedge delay is either fixed, or the provided percentile of the observed latency of successful calls
+ * (the initial delay is used until enough calls are observed, and the percentile is computed again at most every 100 milliseconds).
+ * <p>
+ * No hedge is started while the executor rejects the calls (saturated), and the call runs on the calling thread if even the first one is rejected.
+ */
+public class Hedging {
+
+    // Number of successful calls to be observed before using the percentile delay.
+    private static final int MIN_OBSERVED_CALLS = 100;
+
+    // Interval after which the percentile delay is computed again, as it sums all the buckets of the latencies.
+    private static final long PERCENTILE_REFRESH_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final long initialDelayInNanos;
+    private final double percentile;
+    private final int maxHedges;
+    private final ExecutorService executor;
+    private final Clock clock;
+
+    // Latency of the successful calls, only kept in percentile mode.
+    private final LatencyHistogram latencies;
+
+    // Hedge delay computed from the observed latencies.
+    private volatile long percentileDelayInNanos;
+
+    // Time after which the next observed call computes the percentile delay, only one call wins the refresh.
+    private final AtomicLong nextRefreshInNanos;
+
+    /**
+     * Creates the {@link Hedging} starting a hedge after every fixed delay, on the shared bounded executor
+     * (see {@link io.github.ravichaturvedi.retrier.helper.Schedulers#defaultExecutor()}).
+     * @param delay
+     * @param maxHedges
+     */
+    public Hedging(Duration delay, int maxHedges) {
+        this(delay, 0, maxHedges, defaultExecutor());
+    }
+
+    /**
+     * Creates the {@link Hedging} starting a hedge after the delay, which is the provided percentile (between 0 and 100 exclusive)
+     * of the observed latency, or the initial delay if percentile is 0.
+     * @param initialDelay
+     * @param percentile
+     * @param maxHedges
+     * @param executor
+     */
+    public Hedging(Duration initialDelay, double percentile, int maxHedges, ExecutorService executor) {
+        this(initialDelay, percentile, maxHedges, executor, Clock.SYSTEM);
+    }
+
+    /**
+     * Creates the {@link Hedging} measuring the latency of the calls with the provided {@link Clock}, which should be the clock
+     * of the retriers using it. Hedge delay itself is always waited out in real time, on the executor.
+     * @param initialDelay
+     * @param percentile
+     * @param maxHedges
+     * @param executor
+     * @param clock
+     */
+    public Hedging(Duration initialDelay, double percentile, int maxHedges, ExecutorService executor, Clock clock) {
+        ensureNotNull(initialDelay, "Initial delay cannot be null.");
+        ensure(initialDelay.toNanos() > 0, "Initial delay should be positive.");
+        ensure(percentile >= 0 && percentile < 100, "Percentile should be between 0 and 100.");
+        ensure(maxHedges > 0, "Max hedges should be positive.");
+        ensureNotNull(executor, "Executor cannot be null.");
+        ensureNotNull(clock, "Clock cannot be null.");
+
+        this.initialDelayInNanos = initialDelay.toNanos();
+        this.percentile = percentile;
+        this.maxHedges = maxHedges;
+        this.executor = executor;
+        this.clock = clock;
+        this.latencies = percentile > 0 ? new LatencyHistogram() : null;
+        this.percentileDelayInNanos = initialDelayInNanos;
+        this.nextRefreshInNanos = new AtomicLong(clock.nanoTime());
+    }
+
+    /**
+     * Call the {@link Callable} with hedging, returning the first successful result.
+     * @param callable
+     * @param <T>
+     * @return
+     * @throws Exception
+     */
+    public <T> T call(Callable<T> callable) throws Exception {
+        return call(callable, e -> true, Permits.NONE);
+    }
+
+    /**
+     * Call the {@link Callable} with hedging, returning the first successful result, or failing as soon as a call fails with
+     * an exception which is not retryable (e.g. cannot be handled by the handler of the retry).
+     * Every hedge takes its own {@link Permits} while it runs, and is not started if none is available.
+     * @param callable
+     * @param retryable
+     * @param permits
+     * @param <T>
+     * @return
+     * @throws Exception
+     */
+    public <T> T call(Callable<T> callable, Predicate<? super Exception> retryable, Permits permits) throws Exception {
+        ensureNotNull(retryable, "Retryable predicate cannot be null.");
+        ensureNotNull(permits, "Permits cannot be null.");
+        ExecutorCompletionService<T> completionService = new ExecutorCompletionService<>(executor);
+        List<Future<T>> futures = new ArrayList<>(maxHedges + 1);
+        List<Hedge<T>> hedges = new ArrayList<>(maxHedges);
+        long[] startTimesInNanos = new long[maxHedges + 1];
+        long delayInNanos = delay();
+
+        try {
+            startTimesInNanos[0] = clock.nanoTime();
+            try {
+                futures.add(completionService.submit(callable));
+            } catch (RejectedExecutionException e) {
+                // Executor is saturated, so the call runs on the calling thread without hedging.
+                return callUnhedged(callable);
+            }
+            int inFlight = 1;
+            int maxCalls = maxHedges + 1;
+
+            while (true) {
+                Future<T> done = futures.size() < maxCalls ?
+                        completionService.poll(delayInNanos, TimeUnit.NANOSECONDS) : completionService.take();
+
+                // Still running after the delay, start a hedge, unless out of permits or the executor is saturated.
+                if (done == null) {
+                    if (!permits.tryAcquire()) {
+                        maxCalls = futures.size();
+                        continue;
+                    }
+                    Hedge<T> hedge = new Hedge<>(callable, permits);
+                    startTimesInNanos[futures.size()] = clock.nanoTime();
+                    try {
+                        futures.add(completionService.submit(hedge));
+                        hedges.add(hedge);
+                        inFlight++;
+                    } catch (RejectedExecutionException e) {
+                        permits.release();
+                        maxCalls = futures.size();
+                    }
+                    continue;
+                }
+
+                inFlight--;
+                try {
+                    T result = done.get();
+                    observe(clock.nanoTime() - startTimesInNanos[futures.indexOf(done)]);
+                    return result;
+                } catch (ExecutionException e) {
+                    // Wait for the other calls in flight, the group only fails when all of them have failed or one is not retryable.
+                    Exception cause = getCause(e);
+                    if (inFlight == 0 || !retryable.test(cause)) {
+                        throw cause;
+                    }
+                }
+            }
+        } finally {
+            for (Future<T> future : futures) {
+                future.cancel(true);
+            }
+            // Hedges cancelled before they started give their permits back here, the others do once they complete.
+            for (Hedge<T> hedge : hedges) {
+                hedge.cancel();
+            }
+        }
+    }
+
+    private <T> T callUnhedged(Callable<T> callable) throws Exception {
+        long startTimeInNanos = clock.nanoTime();
+        T result = callable.call();
+        observe(clock.nanoTime() - startTimeInNanos);
+        return result;
+    }
+
+    private long delay() {
+        return latencies == null ? initialDelayInNanos : percentileDelayInNanos;
+    }
+
+    private void observe(long latencyInNanos) {
+        if (latencies == null) {
+            return;
+        }
+
+        latencies.record(latencyInNanos);
+
+        // Gate the refresh on time, so the buckets are summed at most once per interval whatever the call rate.
+        long now = clock.nanoTime();
+        long nextRefresh = nextRefreshInNanos.get();
+        if (now - nextRefresh < 0 || !nextRefreshInNanos.compareAndSet(nextRefresh, now + PERCENTILE_REFRESH_INTERVAL_NANOS)) {
+            return;
+        }
+        if (latencies.count() >= MIN_OBSERVED_CALLS) {
+            percentileDelayInNanos = Math.max(1, latencies.percentile(percentile));
+        }
+    }
+
+    /**
+     * {@link Permits} taken by every hedge while it runs, e.g. from the bulkhead and concurrency limiter of the retrier,
+     * as the permits of the attempt only cover its first call.
+     */
+    public interface Permits {
+
+        // Permits always available, so the hedges are only limited by the max hedges.
+        Permits NONE = new Permits() {
+            @Override
+            public boolean tryAcquire() {
+                return true;
+            }
+
+            @Override
+            public void release() {
+            }
+        };
+
+        /**
+         * Acquire a permit for a hedge without waiting, returns false if none is available.
+         * @return
+         */
+        boolean tryAcquire();
+
+        /**
+         * Release the permit of a hedge.
+         */
+        void release();
+    }
+
+    /**
+     * {@link Hedge} is a hedge call holding its permit until it completes, or until it is cancelled before it started.
+     */
+    private static final class Hedge<T> implements Callable<T> {
+
+        private final Callable<T> callable;
+        private final Permits permits;
+
+        // Whether the call started or was cancelled, so the permit is released only once.
+        private final AtomicBoolean claimed = new AtomicBoolean();
+
+        Hedge(Callable<T> callable, Permits permits) {
+            this.callable = callable;
+            this.permits = permits;
+        }
+
+        @Override
+        public T call() throws Exception {
+            if (!claimed.compareAndSet(false, true)) {
+                throw new CancellationException("Hedge cancelled.");
+            }
+            try {
+                return callable.call();
+            } finally {
+                permits.release();
+            }
+        }
+
+        void cancel() {
+            if (claimed.compareAndSet(false, true)) {
+                permits.release();
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Hedging{" +
+                "initialDelayInNanos=" + initialDelayInNanos +
+                ", percentile=" + percentile +
+                ", maxHedges=" + maxHedges +
+                '}';
+    }
+}
@@ -18,6 +18,8 @@ package io.github.ravichaturvedi.retrier.helper;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
 
 public class Exceptions {
 
@@ -48,4 +50,34 @@ public class Exceptions {
             }
         }
     }
+
+    /**
+     * Returns the actual exception of the failed task wrapped within the provided {@link ExecutionException},
+     * rethrowing it if it is an {@link Error}.
+     *
+     * @param e
+     * @return
+     */
+    public static Exception getCause(ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof Exception) {
+            return (Exception) cause;
+        }
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        return e;
+    }
+
+    /**
+     * Returns the actual exception of the failed task wrapped within the provided {@link ExecutionException} if it is unchecked,
+     * rethrowing it if it is an {@link Error} and wrapping it in {@link CompletionException} if it is checked.
+     *
+     * @param e
+     * @return
+     */
+    public static RuntimeException getUncheckedCause(ExecutionException e) {
+        Exception cause = getCause(e);
+        return cause instanceof RuntimeException ? (RuntimeException) cause : new CompletionException(cause);
+    }
 }
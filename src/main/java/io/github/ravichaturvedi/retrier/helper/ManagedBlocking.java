@@ -0,0 +1,120 @@
+/*
+ * Copyright 2017 The Retrier AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.retrier.helper;
+
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ManagedBlocking} blocks the calling thread through {@link ForkJoinPool#managedBlock} when it is a fork-join worker,
+ * so the pool can compensate with a spare thread instead of losing a worker for the whole block (e.g. a backoff delay).
+ * Other threads block as usual.
+ */
+public class ManagedBlocking {
+
+    /**
+     * Sleep for the provided duration, as a managed block on a fork-join worker.
+     * @param durationInMillisec
+     * @throws InterruptedException
+     */
+    public static void sleep(long durationInMillisec) throws InterruptedException {
+        if (!(Thread.currentThread() instanceof ForkJoinWorkerThread)) {
+            Thread.sleep(durationInMillisec);
+            return;
+        }
+        ForkJoinPool.managedBlock(new SleepBlocker(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(durationInMillisec)));
+    }
+
+    /**
+     * Call the provided blocking {@link Callable}, as a managed block on a fork-join worker.
+     * Exception raised by the callable is propagated as is.
+     * @param callable
+     * @param <T>
+     * @return
+     * @throws Exception
+     */
+    public static <T> T call(Callable<T> callable) throws Exception {
+        if (!(Thread.currentThread() instanceof ForkJoinWorkerThread)) {
+            return callable.call();
+        }
+        CallBlocker<T> blocker = new CallBlocker<>(callable);
+        ForkJoinPool.managedBlock(blocker);
+        if (blocker.exception != null) {
+            throw blocker.exception;
+        }
+        return blocker.result;
+    }
+
+    /**
+     * {@link SleepBlocker} sleeps until the deadline, released as soon as the deadline is over.
+     */
+    private static final class SleepBlocker implements ForkJoinPool.ManagedBlocker {
+
+        private final long deadlineInNanos;
+
+        SleepBlocker(long deadlineInNanos) {
+            this.deadlineInNanos = deadlineInNanos;
+        }
+
+        @Override
+        public boolean block() throws InterruptedException {
+            long remainingTimeInNanos = deadlineInNanos - System.nanoTime();
+            if (remainingTimeInNanos > 0) {
+                TimeUnit.NANOSECONDS.sleep(remainingTimeInNanos);
+            }
+            return true;
+        }
+
+        @Override
+        public boolean isReleasable() {
+            return deadlineInNanos - System.nanoTime() <= 0;
+        }
+    }
+
+    /**
+     * {@link CallBlocker} calls the callable once, keeping its result or exception.
+     */
+    private static final class CallBlocker<T> implements ForkJoinPool.ManagedBlocker {
+
+        private final Callable<T> callable;
+        private boolean done;
+        private T result;
+        private Exception exception;
+
+        CallBlocker(Callable<T> callable) {
+            this.callable = callable;
+        }
+
+        @Override
+        public boolean block() {
+            try {
+                result = callable.call();
+            } catch (Exception e) {
+                exception = e;
+            }
+            done = true;
+            return true;
+        }
+
+        @Override
+        public boolean isReleasable() {
+            return done;
+        }
+    }
+}
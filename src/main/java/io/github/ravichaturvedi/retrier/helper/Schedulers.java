@@ -0,0 +1,128 @@
+/*
+ * Copyright 2017 The Retrier AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.retrier.helper;
+
+
+import io.github.ravichaturvedi.retrier.Clock;
+import io.github.ravichaturvedi.retrier.clock.CoarseClock;
+import io.github.ravichaturvedi.retrier.timer.HashedWheelTimer;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class Schedulers {
+
+    // Tick and number of slots of the shared wheel timer, so a round covers ~5 seconds of delays.
+    public static final int WHEEL_TICK_MILLIS = 10;
+    private static final int WHEEL_TICKS = 512;
+
+    // Precision of the shared coarse clock.
+    public static final int COARSE_CLOCK_PRECISION_MILLIS = 1;
+
+    // Max number of threads of the shared executor, and how long an idle one is kept.
+    public static final int DEFAULT_EXECUTOR_MAX_THREADS = Math.max(64, 4 * Runtime.getRuntime().availableProcessors());
+    private static final long DEFAULT_EXECUTOR_KEEP_ALIVE_SECONDS = 60;
+
+    /**
+     * Returns the shared {@link ScheduledExecutorService} used for async retries when none is configured.
+     * It is created lazily on first use and runs on a single daemon thread.
+     *
+     * @return
+     */
+    public static ScheduledExecutorService defaultScheduler() {
+        return DefaultSchedulerHolder.SCHEDULER;
+    }
+
+    /**
+     * Returns the shared {@link ExecutorService} used to run blocking calls in parallel (e.g. hedges) when none is configured.
+     * It is created lazily on first use and runs on daemon threads created on demand, up to {@link #DEFAULT_EXECUTOR_MAX_THREADS}.
+     * Once all of them are busy, a call is rejected with {@link java.util.concurrent.RejectedExecutionException} instead of being
+     * queued behind the (possibly waiting on each other) running calls, and the retrier runs it on the calling thread
+     * (still interrupted once out of time), without hedging.
+     *
+     * @return
+     */
+    public static ExecutorService defaultExecutor() {
+        return DefaultExecutorHolder.EXECUTOR;
+    }
+
+    /**
+     * Returns the shared {@link HashedWheelTimer} with a tick of {@link #WHEEL_TICK_MILLIS} milliseconds.
+     * It is created lazily on first use and runs on a single daemon thread.
+     *
+     * @return
+     */
+    public static ScheduledExecutorService defaultWheelTimer() {
+        return DefaultWheelTimerHolder.TIMER;
+    }
+
+    /**
+     * Returns the shared {@link CoarseClock} with a precision of {@link #COARSE_CLOCK_PRECISION_MILLIS} milliseconds.
+     * It is created lazily on first use and runs on a single daemon thread.
+     *
+     * @return
+     */
+    public static Clock defaultCoarseClock() {
+        return DefaultCoarseClockHolder.CLOCK;
+    }
+
+    private static ThreadFactory daemonThreadFactory(String name) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static class DefaultSchedulerHolder {
+
+        private static final ScheduledExecutorService SCHEDULER = create();
+
+        private static ScheduledExecutorService create() {
+            ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, daemonThreadFactory("retrier-scheduler"));
+            scheduler.setRemoveOnCancelPolicy(true);
+            return scheduler;
+        }
+    }
+
+    private static class DefaultExecutorHolder {
+
+        private static final ExecutorService EXECUTOR = create();
+
+        private static ExecutorService create() {
+            return new ThreadPoolExecutor(0, DEFAULT_EXECUTOR_MAX_THREADS, DEFAULT_EXECUTOR_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                    new SynchronousQueue<>(), daemonThreadFactory("retrier-executor"), new ThreadPoolExecutor.AbortPolicy());
+        }
+    }
+
+    private static class DefaultWheelTimerHolder {
+
+        private static final ScheduledExecutorService TIMER = new HashedWheelTimer(Duration.ofMillis(WHEEL_TICK_MILLIS), WHEEL_TICKS);
+    }
+
+    private static class DefaultCoarseClockHolder {
+
+        private static final Clock CLOCK = new CoarseClock(Duration.ofMillis(COARSE_CLOCK_PRECISION_MILLIS));
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2017 The Retrier AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.retrier.helper;
+
+
+import io.github.ravichaturvedi.retrier.Clock;
+
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.LongAdder;
+
+import static io.github.ravichaturvedi.retrier.helper.Ensurer.ensure;
+import static io.github.ravichaturvedi.retrier.helper.Ensurer.ensureNotNull;
+
+/**
+ * {@link SlidingWindow} keeps counters over a time window, split in time slices kept in a ring buffer.
+ * <p>
+ * Counters are {@link LongAdder}s and a slice is recycled with a CAS on its time, so it can be shared by many threads without a lock.
+ * It is approximate: counts added to a slice while it is being recycled may get lost.
+ */
+public final class SlidingWindow {
+
+    private final long sliceDurationInNanos;
+    private final Slice[] slices;
+
+    // Clock telling the current time slice.
+    private final Clock clock;
+
+    public SlidingWindow(int sliceCount, long sliceDurationInNanos, int counterCount) {
+        this(sliceCount, sliceDurationInNanos, counterCount, Clock.SYSTEM);
+    }
+
+    public SlidingWindow(int sliceCount, long sliceDurationInNanos, int counterCount, Clock clock) {
+        ensure(sliceCount > 0, "Slice count should be positive.");
+        ensure(sliceDurationInNanos > 0, "Slice duration should be positive.");
+        ensure(counterCount > 0, "Counter count should be positive.");
+        ensureNotNull(clock, "Clock cannot be null.");
+        this.sliceDurationInNanos = sliceDurationInNanos;
+        this.clock = clock;
+        this.slices = new Slice[sliceCount];
+        for (int i = 0; i < sliceCount; i++) {
+            slices[i] = new Slice(counterCount);
+        }
+    }
+
+    /**
+     * Add the value to the provided counter of the current time slice.
+     * @param counter
+     * @param value
+     */
+    public void add(int counter, long value) {
+        slice(currentTime()).counters[counter].add(value);
+    }
+
+    /**
+     * Increment the provided counter of the current time slice.
+     * @param counter
+     */
+    public void increment(int counter) {
+        slice(currentTime()).counters[counter].increment();
+    }
+
+    /**
+     * Returns the sum of the provided counter over the window.
+     * @param counter
+     * @return
+     */
+    public long sum(int counter) {
+        long time = currentTime();
+        long sum = 0;
+        for (Slice slice : slices) {
+            if (slice.time > time - slices.length) {
+                sum += slice.counters[counter].sum();
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Reset all the counters of the window.
+     */
+    public void reset() {
+        for (Slice slice : slices) {
+            slice.time = Long.MIN_VALUE;
+        }
+    }
+
+    private Slice slice(long time) {
+        Slice slice = slices[(int) Math.floorMod(time, (long) slices.length)];
+        long sliceTime = slice.time;
+        if (sliceTime != time && TIME.compareAndSet(slice, sliceTime, time)) {
+            for (LongAdder counter : slice.counters) {
+                counter.reset();
+            }
+        }
+        return slice;
+    }
+
+    private long currentTime() {
+        return clock.nanoTime() / sliceDurationInNanos;
+    }
+
+    private static final AtomicLongFieldUpdater<Slice> TIME = AtomicLongFieldUpdater.newUpdater(Slice.class, "time");
+
+    private static final class Slice {
+        // Time (in slice durations) being accounted for in the slice.
+        volatile long time = Long.MIN_VALUE;
+
+        final LongAdder[] counters;
+
+        Slice(int counterCount) {
+            this.counters = new LongAdder[counterCount];
+            for (int i = 0; i < counterCount; i++) {
+                counters[i] = new LongAdder();
+            }
+        }
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright 2017 The Retrier AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.retrier.history;
+
+
+import io.github.ravichaturvedi.retrier.RetryListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static io.github.ravichaturvedi.retrier.helper.Ensurer.ensure;
+
+/**
+ * {@link AttemptHistory} keeps the failed attempts of a single retry call in a fixed size ring buffer, the oldest
+ * records being overwritten once full.
+ * <p>
+ * Records are kept in plain arrays and only turned into {@link AttemptRecord}s when the retries are exhausted, so a
+ * failed attempt allocates nothing. Exceptions themselves are only kept if they are to be attached as suppressed.
+ * It is not thread-safe, as it belongs to a single retry call.
+ */
+public final class AttemptHistory {
+
+    private final int size;
+
+    // Whether the exhaustion exception is raised without stack trace.
+    private final boolean stackless;
+
+    // Max number of earlier failures attached as suppressed to the exhaustion exception.
+    private final int maxSuppressed;
+
+    private final int[] attempts;
+    private final Class<? extends Exception>[] exceptionClasses;
+    private final String[] messages;
+    private final long[] startTimesInNanos;
+    private final long[] attemptTimesInNanos;
+    private final long[] delaysInMillisec;
+
+    // Failures of the last attempts in their own ring buffer, only as many as attached as suppressed along with the last one,
+    // null if none is attached as suppressed.
+    private final Exception[] failures;
+
+    // Number of failed attempts recorded so far, the last one being at (count - 1) % size.
+    private int count;
+
+    @SuppressWarnings("unchecked")
+    public AttemptHistory(int size, boolean stackless, int maxSuppressed) {
+        ensure(size > 0, "History size should be positive.");
+        ensure(maxSuppressed >= 0, "Max suppressed failures should not be negative.");
+        this.size = size;
+        this.stackless = stackless;
+        this.maxSuppressed = maxSuppressed;
+        this.attempts = new int[size];
+        this.exceptionClasses = (Class<? extends Exception>[]) new Class<?>[size];
+        this.messages = new String[size];
+        this.startTimesInNanos = new long[size];
+        this.attemptTimesInNanos = new long[size];
+        this.delaysInMillisec = new long[size];
+        this.failures = maxSuppressed > 0 ? new Exception[Math.min(maxSuppressed + 1, size)] : null;
+    }
+
+    /**
+     * Record the failed attempt.
+     * @param attempt
+     * @param e
+     * @param startTimeInNanos start time of the attempt relative to the start of the first attempt
+     * @param attemptTimeInNanos
+     */
+    public void record(int attempt, Exception e, long startTimeInNanos, long attemptTimeInNanos) {
+        int i = count++ % size;
+        attempts[i] = attempt;
+        exceptionClasses[i] = e.getClass();
+        messages[i] = e.getMessage();
+        startTimesInNanos[i] = startTimeInNanos;
+        attemptTimesInNanos[i] = attemptTimeInNanos;
+        delaysInMillisec[i] = 0;
+        if (failures != null) {
+            failures[(count - 1) % failures.length] = e;
+        }
+    }
+
+    /**
+     * Record the backoff delay after the last failed attempt.
+     * @param delayInMillisec
+     */
+    public void recordDelay(long delayInMillisec) {
+        if (count > 0) {
+            delaysInMillisec[(count - 1) % size] = delayInMillisec;
+        }
+    }
+
+    /**
+     * Returns the number of failed attempts recorded so far.
+     * @return
+     */
+    public int getFailedAttempts() {
+        return count;
+    }
+
+    /**
+     * Returns the records of the last failed attempts, oldest first.
+     * @return
+     */
+    public List<AttemptRecord> getRecords() {
+        int recordCount = Math.min(count, size);
+        List<AttemptRecord> records = new ArrayList<>(recordCount);
+        for (int k = count - recordCount; k < count; k++) {
+            int i = k % size;
+            records.add(new AttemptRecord(attempts[i], exceptionClasses[i], messages[i], startTimesInNanos[i],
+                    attemptTimesInNanos[i], delaysInMillisec[i]));
+        }
+        return Collections.unmodifiableList(records);
+    }
+
+    /**
+     * Create the {@link RetriesExhaustedException} for the last failure, once the provided limit stopped the retries.
+     * @param lastFailure
+     * @param limit null if the backoff was interrupted
+     * @param elapsedTimeInNanos
+     * @return
+     */
+    public RetriesExhaustedException exhausted(Exception lastFailure, RetryListener.Limit limit, long elapsedTimeInNanos) {
+        String message = "Retries exhausted after " + count + " failed attempts in " + Duration.ofNanos(elapsedTimeInNanos) +
+                (limit != null ? " (" + limit + ")" : " (interrupted)") + ", last failure: " + lastFailure;
+        RetriesExhaustedException exception = new RetriesExhaustedException(message, lastFailure, limit, count, getRecords(), stackless);
+
+        // Last failure is the cause, so only the earlier ones still in the history get suppressed, oldest first.
+        if (failures != null) {
+            int suppressedCount = Math.min(maxSuppressed, Math.min(count, size) - 1);
+            for (int k = count - 1 - suppressedCount; k < count - 1; k++) {
+                exception.addSuppressed(failures[k % failures.length]);
+            }
+        }
+        return exception;
+    }
+
+    @Override
+    public String toString() {
+        return "AttemptHistory{" +
+                "size=" + size +
+                ", stackless=" + stackless +
+                ", maxSuppressed=" + maxSuppressed +
+                ", failedAttempts=" + count +
+                '}';
+    }
+}
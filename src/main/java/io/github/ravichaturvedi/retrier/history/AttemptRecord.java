@@ -0,0 +1,89 @@
+/*
+ * Copyright 2017 The Retrier AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.retrier.history;
+
+
+import java.io.Serializable;
+import java.time.Duration;
+
+/**
+ * {@link AttemptRecord} is the immutable record of a failed attempt kept in the {@link AttemptHistory}.
+ */
+public final class AttemptRecord implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    // Number of the attempt, starting with 1.
+    private final int attempt;
+
+    private final Class<? extends Exception> exceptionClass;
+
+    private final String message;
+
+    // Start time of the attempt in nanoseconds, relative to the start of the first attempt.
+    private final long startTimeInNanos;
+
+    private final long attemptTimeInNanos;
+
+    // Backoff delay waited out after the attempt, 0 if none.
+    private final long delayInMillisec;
+
+    AttemptRecord(int attempt, Class<? extends Exception> exceptionClass, String message, long startTimeInNanos,
+                  long attemptTimeInNanos, long delayInMillisec) {
+        this.attempt = attempt;
+        this.exceptionClass = exceptionClass;
+        this.message = message;
+        this.startTimeInNanos = startTimeInNanos;
+        this.attemptTimeInNanos = attemptTimeInNanos;
+        this.delayInMillisec = delayInMillisec;
+    }
+
+    public int getAttempt() {
+        return attempt;
+    }
+
+    public Class<? extends Exception> getExceptionClass() {
+        return exceptionClass;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public long getStartTimeInNanos() {
+        return startTimeInNanos;
+    }
+
+    public long getAttemptTimeInNanos() {
+        return attemptTimeInNanos;
+    }
+
+    public long getDelayInMillisec() {
+        return delayInMillisec;
+    }
+
+    @Override
+    public String toString() {
+        return "AttemptRecord{" +
+                "attempt=" + attempt +
+                ", exceptionClass=" + exceptionClass.getName() +
+                ", message=" + message +
+                ", startTime=" + Duration.ofNanos(startTimeInNanos) +
+                ", attemptTime=" + Duration.ofNanos(attemptTimeInNanos) +
+                ", delay=" + Duration.ofMillis(delayInMillisec) +
+                '}';
+    }
+}
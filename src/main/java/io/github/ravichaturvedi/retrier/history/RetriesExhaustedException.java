@@ -0,0 +1,73 @@
+/*
+ * Copyright 2017 The Retrier AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.retrier.history;
+
+
+import io.github.ravichaturvedi.retrier.RetryListener;
+
+import java.util.List;
+
+/**
+ * {@link RetriesExhaustedException} is raised instead of the last exception when a limit stops the retries and the
+ * {@link AttemptHistory} is enabled, carrying the records of the last failed attempts.
+ * <p>
+ * Last exception is the cause. Earlier failures are only attached as suppressed up to the configured cap, and the
+ * stack trace is not filled in if configured stackless, so an error storm doesn't pay for it on every call.
+ */
+public class RetriesExhaustedException extends Exception {
+
+    private static final long serialVersionUID = 1L;
+
+    // Limit which stopped the retries, null if the backoff was interrupted.
+    private final RetryListener.Limit limit;
+
+    // Total number of failed attempts, the history keeping only the last ones.
+    private final int failedAttempts;
+
+    private final List<AttemptRecord> history;
+
+    RetriesExhaustedException(String message, Exception cause, RetryListener.Limit limit, int failedAttempts,
+                              List<AttemptRecord> history, boolean stackless) {
+        super(message, cause, true, !stackless);
+        this.limit = limit;
+        this.failedAttempts = failedAttempts;
+        this.history = history;
+    }
+
+    /**
+     * Returns the limit which stopped the retries, null if the backoff was interrupted.
+     * @return
+     */
+    public RetryListener.Limit getLimit() {
+        return limit;
+    }
+
+    /**
+     * Returns the total number of failed attempts, which can be more than the records of the history.
+     * @return
+     */
+    public int getFailedAttempts() {
+        return failedAttempts;
+    }
+
+    /**
+     * Returns the records of the last failed attempts, oldest first.
+     * @return
+     */
+    public List<AttemptRecord> getHistory() {
+        return history;
+    }
+}
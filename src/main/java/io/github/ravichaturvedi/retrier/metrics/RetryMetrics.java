@@ -0,0 +1,317 @@
+/*
+ * Copyright 2017 The Retrier AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.retrier.metrics;
+
+
+import io.github.ravichaturvedi.retrier.RetryListener;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.InstanceNotFoundException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import static io.github.ravichaturvedi.retrier.helper.Ensurer.ensureNotNull;
+
+/**
+ * {@link RetryMetrics} is a {@link RetryListener} keeping the counters and latency histograms of a {@link io.github.ravichaturvedi.retrier.Retrier}.
+ * <p>
+ * Counters are {@link LongAdder}s and histograms are {@link LatencyHistogram}s, so it can be shared by many threads without contention.
+ * Every call ends as a success, an exhausted failure, a failure which is not retried or a rejection before the attempt ran.
+ * End-to-end latency is kept separately for the calls which succeeded or failed on the first attempt and the retried ones.
+ */
+public class RetryMetrics implements RetryListener, RetryMetricsMBean {
+
+    // JMX domain of the registered metrics.
+    public static final String JMX_DOMAIN = "io.github.ravichaturvedi.retrier";
+
+    private final String name;
+
+    // Whether these metrics are registered, so only the MBean registered by them is unregistered.
+    private final AtomicBoolean registered = new AtomicBoolean();
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder firstTrySuccesses = new LongAdder();
+    private final LongAdder retriedSuccesses = new LongAdder();
+    private final LongAdder exhaustedFailures = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder retryLimits = new LongAdder();
+    private final LongAdder retryBudgetLimits = new LongAdder();
+    private final LongAdder circuitOpenLimits = new LongAdder();
+    private final LongAdder totalBackoffMillis = new LongAdder();
+
+    private final LatencyHistogram nonRetriedLatency = new LatencyHistogram();
+    private final LatencyHistogram retriedLatency = new LatencyHistogram();
+    private final LatencyHistogram attemptLatency = new LatencyHistogram();
+
+    public RetryMetrics(String name) {
+        ensureNotNull(name, "Name cannot be null.");
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the JMX {@link ObjectName} of the metrics.
+     * @return
+     */
+    public ObjectName getObjectName() {
+        try {
+            return new ObjectName(JMX_DOMAIN + ":type=RetryMetrics,name=" + ObjectName.quote(name));
+        } catch (JMException e) {
+            throw new IllegalArgumentException("Invalid metrics name: " + name, e);
+        }
+    }
+
+    /**
+     * Register the metrics with the platform {@link MBeanServer}, doing nothing if they are already registered (e.g. shared by retriers).
+     * Names should be unique: it fails if other metrics are registered with the same name.
+     * Metrics stay registered until {@link #unregister()} is called, e.g. on shutdown.
+     */
+    public void register() {
+        if (!registered.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, getObjectName());
+        } catch (InstanceAlreadyExistsException e) {
+            registered.set(false);
+            throw new IllegalStateException("Metrics already registered with the same name: " + name, e);
+        } catch (JMException e) {
+            registered.set(false);
+            throw new IllegalStateException("Unable to register metrics: " + name, e);
+        }
+    }
+
+    /**
+     * Unregister the metrics from the platform {@link MBeanServer}, if registered by them.
+     */
+    public void unregister() {
+        if (!registered.compareAndSet(true, false)) {
+            return;
+        }
+
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(getObjectName());
+        } catch (InstanceNotFoundException e) {
+            // Already unregistered.
+        } catch (JMException e) {
+            throw new IllegalStateException("Unable to unregister metrics: " + name, e);
+        }
+    }
+
+    @Override
+    public void onAttemptStarted(int attempt) {
+        if (attempt == 1) {
+            calls.increment();
+        }
+    }
+
+    @Override
+    public void onAttemptFailed(int attempt, long elapsedTimeInNanos, long attemptTimeInNanos, Class<? extends Exception> exceptionClass) {
+        attemptLatency.record(attemptTimeInNanos);
+    }
+
+    @Override
+    public void onBackoff(int attempt, long delayInMillisec) {
+        totalBackoffMillis.add(delayInMillisec);
+    }
+
+    @Override
+    public void onLimitExceeded(int attempt, long elapsedTimeInNanos, Limit limit) {
+        exhaustedFailures.increment();
+        switch (limit) {
+            case TIMEOUT:
+                timeouts.increment();
+                break;
+            case RETRY_COUNT:
+                retryLimits.increment();
+                break;
+            case RETRY_BUDGET:
+                retryBudgetLimits.increment();
+                break;
+            case CIRCUIT_OPEN:
+                circuitOpenLimits.increment();
+                break;
+            default:
+                break;
+        }
+        (attempt == 1 ? nonRetriedLatency : retriedLatency).record(elapsedTimeInNanos);
+    }
+
+    @Override
+    public void onRejected(int attempt, long elapsedTimeInNanos, Limit limit) {
+        rejections.increment();
+        // Rejected first attempt never ran, so there is no latency to tell.
+        if (attempt > 1) {
+            retriedLatency.record(elapsedTimeInNanos);
+        }
+    }
+
+    @Override
+    public void onFailure(int attempt, long elapsedTimeInNanos, Class<? extends Exception> exceptionClass) {
+        failures.increment();
+        (attempt == 1 ? nonRetriedLatency : retriedLatency).record(elapsedTimeInNanos);
+    }
+
+    @Override
+    public void onSuccess(int attempt, long elapsedTimeInNanos, long attemptTimeInNanos) {
+        attemptLatency.record(attemptTimeInNanos);
+        if (attempt == 1) {
+            firstTrySuccesses.increment();
+            nonRetriedLatency.record(elapsedTimeInNanos);
+        } else {
+            retriedSuccesses.increment();
+            retriedLatency.record(elapsedTimeInNanos);
+        }
+    }
+
+    public LatencyHistogram getNonRetriedLatency() {
+        return nonRetriedLatency;
+    }
+
+    public LatencyHistogram getRetriedLatency() {
+        return retriedLatency;
+    }
+
+    public LatencyHistogram getAttemptLatency() {
+        return attemptLatency;
+    }
+
+    @Override
+    public long getCalls() {
+        return calls.sum();
+    }
+
+    @Override
+    public long getFirstTrySuccesses() {
+        return firstTrySuccesses.sum();
+    }
+
+    @Override
+    public long getRetriedSuccesses() {
+        return retriedSuccesses.sum();
+    }
+
+    @Override
+    public long getExhaustedFailures() {
+        return exhaustedFailures.sum();
+    }
+
+    @Override
+    public long getFailures() {
+        return failures.sum();
+    }
+
+    @Override
+    public long getRejections() {
+        return rejections.sum();
+    }
+
+    @Override
+    public long getTimeouts() {
+        return timeouts.sum();
+    }
+
+    @Override
+    public long getRetryLimits() {
+        return retryLimits.sum();
+    }
+
+    @Override
+    public long getRetryBudgetLimits() {
+        return retryBudgetLimits.sum();
+    }
+
+    @Override
+    public long getCircuitOpenLimits() {
+        return circuitOpenLimits.sum();
+    }
+
+    @Override
+    public long getTotalBackoffMillis() {
+        return totalBackoffMillis.sum();
+    }
+
+    @Override
+    public long getNonRetriedLatencyP50() {
+        return nonRetriedLatency.percentile(50);
+    }
+
+    @Override
+    public long getNonRetriedLatencyP99() {
+        return nonRetriedLatency.percentile(99);
+    }
+
+    @Override
+    public long getNonRetriedLatencyP999() {
+        return nonRetriedLatency.percentile(99.9);
+    }
+
+    @Override
+    public long getRetriedLatencyP50() {
+        return retriedLatency.percentile(50);
+    }
+
+    @Override
+    public long getRetriedLatencyP99() {
+        return retriedLatency.percentile(99);
+    }
+
+    @Override
+    public long getRetriedLatencyP999() {
+        return retriedLatency.percentile(99.9);
+    }
+
+    @Override
+    public long getAttemptLatencyP50() {
+        return attemptLatency.percentile(50);
+    }
+
+    @Override
+    public long getAttemptLatencyP99() {
+        return attemptLatency.percentile(99);
+    }
+
+    @Override
+    public long getAttemptLatencyP999() {
+        return attemptLatency.percentile(99.9);
+    }
+
+    @Override
+    public String toString() {
+        return "RetryMetrics{" +
+                "name='" + name + '\'' +
+                ", calls=" + calls +
+                ", firstTrySuccesses=" + firstTrySuccesses +
+                ", retriedSuccesses=" + retriedSuccesses +
+                ", exhaustedFailures=" + exhaustedFailures +
+                ", timeouts=" + timeouts +
+                ", retryLimits=" + retryLimits +
+                ", retryBudgetLimits=" + retryBudgetLimits +
+                ", circuitOpenLimits=" + circuitOpenLimits +
+                ", totalBackoffMillis=" + totalBackoffMillis +
+                '}';
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2017 The Retrier AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.retrier.metrics;
+
+
+/**
+ * {@link RetryMetricsMBean} defines the attributes of {@link RetryMetrics} exposed over JMX.
+ * <p>
+ * Latencies are in nanoseconds.
+ */
+public interface RetryMetricsMBean {
+
+    long getCalls();
+
+    long getFirstTrySuccesses();
+
+    long getRetriedSuccesses();
+
+    long getExhaustedFailures();
+
+    long getFailures();
+
+    long getRejections();
+
+    long getTimeouts();
+
+    long getRetryLimits();
+
+    long getRetryBudgetLimits();
+
+    long getCircuitOpenLimits();
+
+    long getTotalBackoffMillis();
+
+    long getNonRetriedLatencyP50();
+
+    long getNonRetriedLatencyP99();
+
+    long getNonRetriedLatencyP999();
+
+    long getRetriedLatencyP50();
+
+    long getRetriedLatencyP99();
+
+    long getRetriedLatencyP999();
+
+    long getAttemptLatencyP50();
+
+    long getAttemptLatencyP99();
+
+    long getAttemptLatencyP999();
+}
@@ -0,0 +1,381 @@
+/*
+ * Copyright 2017 The Retrier AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.retrier.timer;
+
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import static io.github.ravichaturvedi.retrier.helper.Ensurer.ensure;
+import static io.github.ravichaturvedi.retrier.helper.Ensurer.ensureNotNull;
+
+/**
+ * {@link HashedWheelTimer} is a {@link ScheduledExecutorService} for large numbers of pending short delays, like the backoff
+ * delays and attempt timeouts of async retries.
+ * <p>
+ * Tasks are kept in a wheel of slots, each slot covering one tick, and a single timer thread expires one slot per tick.
+ * Scheduling only enqueues the task, and cancelling unlinks it from its slot, so both are O(1) whatever the number of
+ * pending tasks, unlike the O(log n) heap of {@link java.util.concurrent.ScheduledThreadPoolExecutor}.
+ * <p>
+ * Delays are approximated to the tick, so a task runs up to one tick late. Tasks are run on the timer thread, so they
+ * should be short and never block (e.g. start an async operation), otherwise the next ticks are delayed.
+ * On {@link #shutdown()} the pending tasks are dropped, only the running task is completed.
+ */
+public class HashedWheelTimer extends AbstractExecutorService implements ScheduledExecutorService {
+
+    // Max number of newly scheduled tasks moved into the wheel per tick, so a burst of schedules doesn't delay the tick.
+    private static final int MAX_TRANSFERS_PER_TICK = 100_000;
+
+    private static final AtomicInteger TIMER_COUNT = new AtomicInteger();
+
+    private final long tickDurationInNanos;
+    private final Slot[] wheel;
+    private final int mask;
+
+    // Tasks scheduled and cancelled since the last tick, only the timer thread moves them into or out of the wheel.
+    private final Queue<Task<?>> scheduledTasks = new ConcurrentLinkedQueue<>();
+    private final Queue<Task<?>> cancelledTasks = new ConcurrentLinkedQueue<>();
+
+    private final Thread thread;
+
+    // Time the tick count is relative to.
+    private final long startTimeInNanos;
+
+    // Number of ticks expired so far, only accessed by the timer thread.
+    private long tick;
+
+    private volatile boolean shutdown;
+
+    /**
+     * Creates the {@link HashedWheelTimer} with the provided tick duration and number of slots (rounded up to a power of 2),
+     * started on a new daemon thread.
+     * @param tickDuration
+     * @param ticksPerWheel
+     */
+    public HashedWheelTimer(Duration tickDuration, int ticksPerWheel) {
+        ensureNotNull(tickDuration, "Tick duration cannot be null.");
+        ensure(tickDuration.toNanos() >= TimeUnit.MILLISECONDS.toNanos(1), "Tick duration should be at least 1 millisecond.");
+        ensure(ticksPerWheel > 0 && ticksPerWheel <= 1 << 30, "Ticks per wheel should be between 1 and 2^30.");
+
+        this.tickDurationInNanos = tickDuration.toNanos();
+        this.wheel = new Slot[ticksPerWheel == 1 ? 1 : Integer.highestOneBit(ticksPerWheel - 1) << 1];
+        for (int i = 0; i < wheel.length; i++) {
+            wheel[i] = new Slot();
+        }
+        this.mask = wheel.length - 1;
+        this.startTimeInNanos = System.nanoTime();
+
+        this.thread = new Thread(this::run, "retrier-wheel-timer-" + TIMER_COUNT.incrementAndGet());
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    @Override
+    public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+        ensureNotNull(command, "Command cannot be null.");
+        return schedule(new Task<Void>(Executors.callable(command, null), deadline(delay, unit), 0));
+    }
+
+    @Override
+    public <V> ScheduledFuture<V> schedule(Callable<V> callable, long delay, TimeUnit unit) {
+        ensureNotNull(callable, "Callable cannot be null.");
+        return schedule(new Task<>(callable, deadline(delay, unit), 0));
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleAtFixedRate(Runnable command, long initialDelay, long period, TimeUnit unit) {
+        ensureNotNull(command, "Command cannot be null.");
+        ensure(period > 0, "Period should be positive.");
+        return schedule(new Task<Void>(Executors.callable(command, null), deadline(initialDelay, unit), unit.toNanos(period)));
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleWithFixedDelay(Runnable command, long initialDelay, long delay, TimeUnit unit) {
+        ensureNotNull(command, "Command cannot be null.");
+        ensure(delay > 0, "Delay should be positive.");
+        return schedule(new Task<Void>(Executors.callable(command, null), deadline(initialDelay, unit), -unit.toNanos(delay)));
+    }
+
+    /**
+     * Runs the command on the next tick.
+     * @param command
+     */
+    @Override
+    public void execute(Runnable command) {
+        schedule(command, 0, TimeUnit.NANOSECONDS);
+    }
+
+    private <V> Task<V> schedule(Task<V> task) {
+        if (shutdown) {
+            throw new RejectedExecutionException("Timer is shutdown.");
+        }
+        scheduledTasks.add(task);
+        return task;
+    }
+
+    private long deadline(long delay, TimeUnit unit) {
+        ensureNotNull(unit, "Unit cannot be null.");
+        // Saturate, as a delay of Long.MAX_VALUE would otherwise overflow.
+        long delayInNanos = Math.max(unit.toNanos(delay), 0);
+        long now = System.nanoTime() - startTimeInNanos;
+        return delayInNanos > Long.MAX_VALUE - now ? Long.MAX_VALUE : now + delayInNanos;
+    }
+
+    private void run() {
+        while (!shutdown) {
+            waitForNextTick();
+            removeCancelledTasks();
+            transferScheduledTasks();
+            wheel[(int) (tick & mask)].expire();
+            tick++;
+        }
+    }
+
+    private void waitForNextTick() {
+        long deadline = tickDurationInNanos * (tick + 1);
+        while (!shutdown) {
+            long sleepTimeInNanos = deadline - (System.nanoTime() - startTimeInNanos);
+            if (sleepTimeInNanos <= 0) {
+                return;
+            }
+            LockSupport.parkNanos(this, sleepTimeInNanos);
+        }
+    }
+
+    private void removeCancelledTasks() {
+        Task<?> task;
+        while ((task = cancelledTasks.poll()) != null) {
+            // Task might not be in the wheel yet, it is then skipped while transferring.
+            if (task.slot != null) {
+                task.slot.remove(task);
+            }
+        }
+    }
+
+    private void transferScheduledTasks() {
+        for (int i = 0; i < MAX_TRANSFERS_PER_TICK; i++) {
+            Task<?> task = scheduledTasks.poll();
+            if (task == null) {
+                return;
+            }
+            if (!task.isCancelled()) {
+                add(task);
+            }
+        }
+    }
+
+    private void add(Task<?> task) {
+        long ticks = task.deadlineInNanos / tickDurationInNanos;
+        task.remainingRounds = (ticks - tick) / wheel.length;
+
+        // Task already past its deadline expires on the current tick.
+        wheel[(int) (Math.max(ticks, tick) & mask)].add(task);
+    }
+
+    @Override
+    public void shutdown() {
+        shutdown = true;
+        LockSupport.unpark(thread);
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        shutdown();
+        if (thread.isAlive() && Thread.currentThread() != thread) {
+            // Pending tasks are drained below, the thread won't run any of them after the current one.
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return Collections.emptyList();
+            }
+        }
+
+        List<Runnable> pendingTasks = new ArrayList<>();
+        for (Slot slot : wheel) {
+            slot.drainTo(pendingTasks);
+        }
+        Task<?> task;
+        while ((task = scheduledTasks.poll()) != null) {
+            if (!task.isCancelled()) {
+                pendingTasks.add(task);
+            }
+        }
+        return pendingTasks;
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return shutdown;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return shutdown && !thread.isAlive();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        TimeUnit.NANOSECONDS.timedJoin(thread, unit.toNanos(timeout));
+        return isTerminated();
+    }
+
+    @Override
+    public String toString() {
+        return "HashedWheelTimer{" +
+                "tickDurationInNanos=" + tickDurationInNanos +
+                ", ticksPerWheel=" + wheel.length +
+                ", shutdown=" + shutdown +
+                '}';
+    }
+
+    /**
+     * {@link Slot} is a doubly linked list of the tasks expiring on a tick of the wheel, only accessed by the timer thread.
+     */
+    private final class Slot {
+
+        private Task<?> head;
+        private Task<?> tail;
+
+        void add(Task<?> task) {
+            task.slot = this;
+            if (head == null) {
+                head = tail = task;
+            } else {
+                tail.next = task;
+                task.prev = tail;
+                tail = task;
+            }
+        }
+
+        void remove(Task<?> task) {
+            if (task.prev != null) {
+                task.prev.next = task.next;
+            } else {
+                head = task.next;
+            }
+            if (task.next != null) {
+                task.next.prev = task.prev;
+            } else {
+                tail = task.prev;
+            }
+            task.slot = null;
+            task.prev = null;
+            task.next = null;
+        }
+
+        void expire() {
+            Task<?> task = head;
+            while (task != null) {
+                Task<?> next = task.next;
+                if (task.isCancelled()) {
+                    remove(task);
+                } else if (task.remainingRounds <= 0) {
+                    remove(task);
+                    task.run();
+                    // Task might have shutdown the timer, and drained the slot.
+                    if (shutdown) {
+                        return;
+                    }
+                } else {
+                    task.remainingRounds--;
+                }
+                task = next;
+            }
+        }
+
+        void drainTo(List<Runnable> tasks) {
+            while (head != null) {
+                Task<?> task = head;
+                remove(task);
+                if (!task.isCancelled()) {
+                    tasks.add(task);
+                }
+            }
+        }
+    }
+
+    /**
+     * {@link Task} is the scheduled task along with its position in the wheel.
+     */
+    private final class Task<V> extends FutureTask<V> implements ScheduledFuture<V> {
+
+        // Deadline relative to the timer start time.
+        private long deadlineInNanos;
+
+        // Period of the repeated task: positive for fixed rate, negative for fixed delay and 0 if not repeated.
+        private final long periodInNanos;
+
+        // Number of wheel rounds left before expiring, and the position in the wheel, only accessed by the timer thread.
+        private long remainingRounds;
+        private Slot slot;
+        private Task<?> prev;
+        private Task<?> next;
+
+        Task(Callable<V> callable, long deadlineInNanos, long periodInNanos) {
+            super(callable);
+            this.deadlineInNanos = deadlineInNanos;
+            this.periodInNanos = periodInNanos;
+        }
+
+        @Override
+        public void run() {
+            if (periodInNanos == 0) {
+                super.run();
+                return;
+            }
+
+            if (runAndReset() && !shutdown) {
+                deadlineInNanos = periodInNanos > 0 ? deadlineInNanos + periodInNanos : deadline(-periodInNanos, TimeUnit.NANOSECONDS);
+                scheduledTasks.add(this);
+            }
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean cancelled = super.cancel(mayInterruptIfRunning);
+            if (cancelled) {
+                cancelledTasks.add(this);
+            }
+            return cancelled;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(deadlineInNanos - (System.nanoTime() - startTimeInNanos), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(getDelay(TimeUnit.NANOSECONDS), other.getDelay(TimeUnit.NANOSECONDS));
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2017 The Retrier AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.retrier.test;
+
+
+import io.github.ravichaturvedi.retrier.Retrier;
+import io.github.ravichaturvedi.retrier.bulkhead.Bulkhead;
+import io.github.ravichaturvedi.retrier.bulkhead.BulkheadFullException;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.github.ravichaturvedi.retrier.Retriers.*;
+import static io.github.ravichaturvedi.retrier.Retry.*;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class TestAsyncRetrier {
+
+    @Test
+    public void testAsyncRetry() throws Exception {
+        Retrier retrier = create(withRetryCount(3),
+                withExpBackoff(Duration.of(10, ChronoUnit.MILLIS)),
+                withTrace(System.out::println));
+
+        AtomicInteger count = new AtomicInteger(0);
+
+        CompletableFuture<String> result = retrier.retryAsync(() -> {
+            CompletableFuture<String> future = new CompletableFuture<>();
+            if (count.incrementAndGet() < 3) {
+                future.completeExceptionally(new IllegalStateException("123"));
+            } else {
+                future.complete("Hello");
+            }
+            return future;
+        });
+
+        assertThat(result.get(), is("Hello"));
+        assertThat(count.get(), is(3));
+    }
+
+    @Test
+    public void testAsyncRetryCount() throws Exception {
+        Retrier retrier = create(withRetryCount(3));
+
+        AtomicInteger count = new AtomicInteger(0);
+
+        try {
+            retrier.retryAsync(on(IllegalArgumentException.class), () -> {
+                count.incrementAndGet();
+                throw new IllegalArgumentException("123");
+            }).get();
+            fail("Should have got IllegalArgumentException.");
+        } catch (ExecutionException e) {
+            assertThat(e.getCause().getClass(), is(equalTo(IllegalArgumentException.class)));
+        }
+
+        assertThat(count.get(), is(3));
+    }
+
+    @Test
+    public void testAsyncRetryOnResult() throws Exception {
+        Retrier retrier = create(withRetryCount(3), withRetryOnResult(String::isEmpty));
+
+        AtomicInteger count = new AtomicInteger(0);
+        CompletableFuture<String> result = retrier.retryAsync(() ->
+                CompletableFuture.completedFuture(count.incrementAndGet() < 2 ? "" : "Hello"));
+
+        assertThat(result.get(), is("Hello"));
+        assertThat(count.get(), is(2));
+
+        // Predicate of the call takes precedence over the one of the retrier.
+        count.set(0);
+        CompletableFuture<Integer> status = retrier.retryAsync(Retrier.ON_ALL_EXCEPTION,
+                () -> CompletableFuture.completedFuture(count.incrementAndGet() < 3 ? 503 : 200), code -> code == 503);
+        assertThat(status.get(), is(200));
+        assertThat(count.get(), is(3));
+    }
+
+    @Test
+    public void testAsyncBulkheadDoesNotWait() throws Exception {
+        Bulkhead bulkhead = new Bulkhead(1, 1, Duration.of(5, ChronoUnit.SECONDS));
+        Retrier retrier = create(withRetryCount(3), withBulkhead(bulkhead));
+
+        // Permit is held until the stage of the attempt completes.
+        CompletableFuture<String> inFlight = new CompletableFuture<>();
+        CompletableFuture<String> first = retrier.retryAsync(() -> inFlight);
+
+        // Attempt started on the scheduler is rejected right away instead of blocking it for the max wait.
+        try {
+            retrier.retryAsync(() -> CompletableFuture.completedFuture("Second")).get(1, TimeUnit.SECONDS);
+            fail("Should have got BulkheadFullException.");
+        } catch (ExecutionException e) {
+            assertThat(e.getCause().getClass(), is(equalTo(BulkheadFullException.class)));
+        }
+
+        inFlight.complete("First");
+        assertThat(first.get(), is("First"));
+        assertThat(bulkhead.getAvailablePermits(), is(1));
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2017 The Retrier AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.retrier.test;
+
+
+import io.github.ravichaturvedi.retrier.BackoffStrategy;
+import io.github.ravichaturvedi.retrier.Retrier;
+import io.github.ravichaturvedi.retrier.RetryPolicy;
+import io.github.ravichaturvedi.retrier.backoff.AdaptiveBackoff;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.github.ravichaturvedi.retrier.BackoffStrategy.*;
+import static io.github.ravichaturvedi.retrier.Retriers.*;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+public class TestBackoffStrategy {
+
+    @Test
+    public void testDeterministicStrategies() {
+        BackoffStrategy fixed = fixed(Duration.ofMillis(100));
+        BackoffStrategy linear = linear(Duration.ofMillis(100), Duration.ofMillis(50), Duration.ofMillis(220));
+        BackoffStrategy exponential = exponential(Duration.ofMillis(100), Duration.ofMillis(1000));
+
+        assertThat(fixed.delay(5, 100), is(100L));
+        assertThat(linear.delay(1, 0), is(100L));
+        assertThat(linear.delay(2, 100), is(150L));
+        assertThat(linear.delay(4, 200), is(220L));
+        assertThat(exponential.delay(1, 0), is(100L));
+        assertThat(exponential.delay(3, 200), is(400L));
+        assertThat(exponential.delay(5, 800), is(1000L));
+        assertThat(exponential.delay(500, 1000), is(1000L));
+    }
+
+    @Test
+    public void testJitterStrategies() {
+        BackoffStrategy fullJitter = fullJitter(Duration.ofMillis(100), Duration.ofMillis(1000));
+        BackoffStrategy equalJitter = equalJitter(Duration.ofMillis(100), Duration.ofMillis(1000));
+        BackoffStrategy decorrelatedJitter = decorrelatedJitter(Duration.ofMillis(100), Duration.ofMillis(1000));
+
+        long previous = 0;
+        for (int attempt = 1; attempt < 100; attempt++) {
+            assertThat(fullJitter.delay(attempt, 0), is(both(greaterThanOrEqualTo(0L)).and(lessThanOrEqualTo(1000L))));
+            assertThat(equalJitter.delay(3, 0), is(both(greaterThanOrEqualTo(200L)).and(lessThanOrEqualTo(400L))));
+
+            long delay = decorrelatedJitter.delay(attempt, previous);
+            assertThat(delay, is(both(greaterThanOrEqualTo(100L)).and(lessThanOrEqualTo(Math.min(1000L, Math.max(previous, 100L) * 3)))));
+            previous = delay;
+        }
+    }
+
+    @Test
+    public void testRetrierWithBackoff() throws Exception {
+        Retrier retrier = create(withRetryCount(3), withBackoff(fullJitter(Duration.ofMillis(1), Duration.ofMillis(5))));
+
+        AtomicInteger count = new AtomicInteger(0);
+        String result = retrier.retry(() -> {
+            if (count.incrementAndGet() < 3) {
+                throw new IllegalStateException("123");
+            }
+            return "Hello";
+        });
+
+        assertThat(result, is("Hello"));
+        assertThat(count.get(), is(3));
+    }
+
+    @Test
+    public void testRetryPolicy() {
+        RetryPolicy policy = create(withRetryCount(500), withTimeout(Duration.ofSeconds(30)),
+                withExpBackoff(Duration.ofMillis(1), Duration.ofSeconds(1))).getPolicy();
+
+        assertThat(policy.getMaxRetries(), is(500));
+        assertThat(policy.getTimeoutInNanos(), is(Duration.ofSeconds(30).toNanos()));
+        assertThat(policy.getCap(), is(10));
+        assertThat(policy.getDelayInNanos(1), is(Duration.ofMillis(1).toNanos()));
+        assertThat(policy.getDelayInNanos(10), is(Duration.ofMillis(512).toNanos()));
+        assertThat(policy.getDelayInNanos(500), is(Duration.ofSeconds(1).toNanos()));
+        assertThat(policy, is(equalTo(create(withRetryCount(500), withTimeout(Duration.ofSeconds(30)),
+                withExpBackoff(Duration.ofMillis(1), Duration.ofSeconds(1))).getPolicy())));
+
+        // Without max delay, the delay saturates instead of overflowing.
+        RetryPolicy unbounded = create(withExpBackoff(Duration.ofMillis(1))).getPolicy();
+        assertThat(unbounded.getDelayInNanos(44), is(greaterThan(unbounded.getDelayInNanos(43))));
+        assertThat(unbounded.getDelayInNanos(200), is(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void testAdaptiveBackoff() throws Exception {
+        AdaptiveBackoff backoff = new AdaptiveBackoff(10, 100, 10, 0.5);
+
+        // Base delay is doubled once per adjustment interval while the attempts are failing.
+        for (int i = 0; i < 3; i++) {
+            Thread.sleep(AdaptiveBackoff.ADJUSTMENT_INTERVAL_MILLIS + 10);
+            for (int j = 0; j < 20; j++) {
+                backoff.onAttemptFailed(1, 0, 0, IllegalStateException.class);
+            }
+        }
+        assertThat(backoff.getBaseDelayInMillisec(), is(80L));
+        assertThat(backoff.delay(2, 0), is(both(greaterThanOrEqualTo(50L)).and(lessThanOrEqualTo(100L))));
+
+        // And decreased by the step once the successes bring the failure rate of the window down.
+        for (int j = 0; j < 100; j++) {
+            backoff.onSuccess(1, 0, 0);
+        }
+        Thread.sleep(AdaptiveBackoff.ADJUSTMENT_INTERVAL_MILLIS + 10);
+        backoff.onSuccess(1, 0, 0);
+        assertThat(backoff.getBaseDelayInMillisec(), is(70L));
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright 2017 The Retrier AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.retrier.test;
+
+
+import io.github.ravichaturvedi.retrier.Retrier;
+import io.github.ravichaturvedi.retrier.concurrency.ConcurrencyLimit;
+import io.github.ravichaturvedi.retrier.concurrency.ConcurrencyLimitExceededException;
+import io.github.ravichaturvedi.retrier.concurrency.ConcurrencyLimiter;
+import io.github.ravichaturvedi.retrier.flow.Flow;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static io.github.ravichaturvedi.retrier.Retriers.*;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class TestConcurrencyLimit {
+
+    @Test
+    public void testAdaptiveLimits() {
+        ConcurrencyLimit vegas = ConcurrencyLimit.vegas(10, 100);
+        ConcurrencyLimit gradient = ConcurrencyLimit.gradient(10, 100);
+
+        // Fully used limit without any latency increase grows.
+        for (int i = 0; i < 50; i++) {
+            vegas.onSample(1_000_000, vegas.getLimit(), false);
+            gradient.onSample(1_000_000, gradient.getLimit(), false);
+        }
+        int vegasLimit = vegas.getLimit();
+        int gradientLimit = gradient.getLimit();
+        assertThat(vegasLimit, is(greaterThan(10)));
+        assertThat(gradientLimit, is(greaterThan(10)));
+
+        // And shrinks once the latency goes up.
+        for (int i = 0; i < 50; i++) {
+            vegas.onSample(10_000_000, vegas.getLimit(), false);
+            gradient.onSample(10_000_000, gradient.getLimit(), false);
+        }
+        assertThat(vegas.getLimit(), is(lessThan(vegasLimit)));
+        assertThat(gradient.getLimit(), is(lessThan(gradientLimit)));
+    }
+
+    @Test
+    public void testConcurrencyLimit() throws Exception {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(ConcurrencyLimit.vegas(1, 1), Duration.ZERO);
+        Retrier retrier = create(withRetryCount(1), withConcurrencyLimit(limiter));
+
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> inFlight = hold(retrier, release);
+
+        // Limit is reached, so the attempt is rejected without calling the operation.
+        try {
+            retrier.retry(() -> "Second");
+            fail("Should have got ConcurrencyLimitExceededException.");
+        } catch (ConcurrencyLimitExceededException e) {
+            assertThat(limiter.getInFlight(), is(1));
+        }
+
+        release.countDown();
+        assertThat(inFlight.get(5, TimeUnit.SECONDS), is("First"));
+        assertThat(limiter.getInFlight(), is(0));
+    }
+
+    @Test
+    public void testConcurrencyLimitWait() throws Exception {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(ConcurrencyLimit.vegas(1, 1), Duration.of(5, ChronoUnit.SECONDS));
+        Retrier retrier = create(withRetryCount(1), withConcurrencyLimit(limiter));
+
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> inFlight = hold(retrier, release);
+
+        // Attempt waits for the permit, until the one in flight completes.
+        CompletableFuture.runAsync(() -> {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            release.countDown();
+        });
+        assertThat(retrier.retry(() -> "Second"), is("Second"));
+        assertThat(inFlight.get(5, TimeUnit.SECONDS), is("First"));
+        assertThat(limiter.getInFlight(), is(0));
+    }
+
+    @Test
+    public void testConcurrencyLimitReleasedOnError() throws Exception {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(ConcurrencyLimit.vegas(1, 1), Duration.ZERO);
+        Retrier retrier = create(withRetryCount(2), withConcurrencyLimit(limiter));
+
+        try {
+            retrier.retry(() -> {
+                throw new AssertionError("123");
+            });
+            fail("Should have got AssertionError.");
+        } catch (AssertionError e) {
+            assertThat(limiter.getInFlight(), is(0));
+        }
+
+        // Upstream failing with an Error terminates the stream, releasing the slot of its subscription.
+        Flow.Publisher<Integer> failing = subscriber -> {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {
+                }
+
+                @Override
+                public void cancel() {
+                }
+            });
+            subscriber.onError(new AssertionError("456"));
+        };
+        CompletableFuture<Throwable> error = new CompletableFuture<>();
+        retrier.retryFlow(null, (Integer position) -> failing, item -> item).subscribe(new Flow.Subscriber<Integer>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+            }
+
+            @Override
+            public void onNext(Integer item) {
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                error.complete(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        });
+        assertThat(error.get(5, TimeUnit.SECONDS).getMessage(), is("456"));
+        assertThat(limiter.getInFlight(), is(0));
+        assertThat(retrier.retry(() -> "Done"), is("Done"));
+    }
+
+    @Test
+    public void testAsyncConcurrencyLimitDoesNotWait() throws Exception {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(ConcurrencyLimit.vegas(1, 1), Duration.of(5, ChronoUnit.SECONDS));
+        Retrier retrier = create(withRetryCount(1), withConcurrencyLimit(limiter));
+
+        CompletableFuture<String> inFlight = new CompletableFuture<>();
+        CompletableFuture<String> first = retrier.retryAsync(() -> inFlight);
+
+        // Attempt started on the scheduler is rejected right away instead of blocking it for the max wait.
+        try {
+            retrier.retryAsync(() -> CompletableFuture.completedFuture("Second")).get(1, TimeUnit.SECONDS);
+            fail("Should have got ConcurrencyLimitExceededException.");
+        } catch (ExecutionException e) {
+            assertThat(e.getCause(), is(instanceOf(ConcurrencyLimitExceededException.class)));
+        }
+
+        inFlight.complete("First");
+        assertThat(first.get(5, TimeUnit.SECONDS), is("First"));
+        assertThat(limiter.getInFlight(), is(0));
+    }
+
+    private static CompletableFuture<String> hold(Retrier retrier, CountDownLatch release) throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CompletableFuture<String> inFlight = CompletableFuture.supplyAsync(() -> {
+            try {
+                return retrier.retry(() -> {
+                    started.countDown();
+                    release.await();
+                    return "First";
+                });
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertThat(started.await(5, TimeUnit.SECONDS), is(true));
+        return inFlight;
+    }
+}
@@ -16,18 +16,53 @@
 package io.github.ravichaturvedi.retrier.test;
 
 
+import io.github.ravichaturvedi.retrier.BatchResult;
+import io.github.ravichaturvedi.retrier.ParallelResult;
 import io.github.ravichaturvedi.retrier.Retrier;
+import io.github.ravichaturvedi.retrier.RetryListener;
+import io.github.ravichaturvedi.retrier.breaker.CircuitBreaker;
+import io.github.ravichaturvedi.retrier.breaker.CircuitBreakerOpenException;
+import io.github.ravichaturvedi.retrier.budget.RetryBudget;
+import io.github.ravichaturvedi.retrier.bulkhead.Bulkhead;
+import io.github.ravichaturvedi.retrier.bulkhead.BulkheadFullException;
+import io.github.ravichaturvedi.retrier.clock.VirtualClock;
+import io.github.ravichaturvedi.retrier.history.RetriesExhaustedException;
+import io.github.ravichaturvedi.retrier.metrics.RetryMetrics;
 import org.junit.Test;
 
 import java.time.Duration;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.Future;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
 
 import static io.github.ravichaturvedi.retrier.Retriers.*;
 import static io.github.ravichaturvedi.retrier.Retry.*;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.fail;
 
@@ -106,4 +141,940 @@ public class TestDefaultRetrier {
         assertThat(result.get(), is(true));
     }
 
+    @Test
+    public void testListener() throws Exception {
+        List<String> events = new ArrayList<>();
+        Retrier retrier = create(withRetryCount(2),
+                withExpBackoff(Duration.of(1, ChronoUnit.MILLIS)),
+                withListener(new RetryListener() {
+                    @Override
+                    public void onAttemptStarted(int attempt) {
+                        events.add("started " + attempt);
+                    }
+
+                    @Override
+                    public void onAttemptFailed(int attempt, long elapsedTimeInNanos, long attemptTimeInNanos, Class<? extends Exception> exceptionClass) {
+                        events.add("failed " + attempt + " " + exceptionClass.getSimpleName());
+                    }
+
+                    @Override
+                    public void onBackoff(int attempt, long delayInMillisec) {
+                        events.add("backoff " + attempt + " " + delayInMillisec);
+                    }
+
+                    @Override
+                    public void onLimitExceeded(int attempt, long elapsedTimeInNanos, Limit limit) {
+                        events.add("exceeded " + attempt + " " + limit);
+                    }
+
+                    @Override
+                    public void onSuccess(int attempt, long elapsedTimeInNanos, long attemptTimeInNanos) {
+                        events.add("success " + attempt);
+                    }
+                }));
+
+        AtomicInteger count = new AtomicInteger(0);
+        assertThat(retrier.retry(() -> {
+            if (count.incrementAndGet() == 1) {
+                throw new IllegalStateException("123");
+            }
+            return "Hello";
+        }), is("Hello"));
+
+        try {
+            retrier.retry(() -> {
+                throw new IllegalArgumentException("123");
+            });
+            fail("Should have got IllegalArgumentException.");
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is("123"));
+        }
+
+        assertThat(events, is(equalTo(Arrays.asList(
+                "started 1", "failed 1 IllegalStateException", "backoff 1 1", "started 2", "success 2",
+                "started 1", "failed 1 IllegalArgumentException", "backoff 1 1", "started 2", "failed 2 IllegalArgumentException", "exceeded 2 RETRY_COUNT"))));
+    }
+
+    @Test
+    public void testRetryBudget() throws Exception {
+        Retrier retrier = create(withRetryCount(100), withRetryBudget(0.0, 1));
+
+        AtomicInteger count = new AtomicInteger(0);
+
+        try {
+            retrier.retry(() -> {
+                count.incrementAndGet();
+                throw new IllegalStateException("123");
+            });
+            fail("Should have got IllegalStateException.");
+        } catch (IllegalStateException e) {
+            assertThat(e.getMessage(), is("123"));
+        }
+
+        // Only the min retries per second of the whole window are allowed.
+        assertThat(count.get(), is(1 + RetryBudget.WINDOW_SECONDS));
+    }
+
+    @Test
+    public void testCircuitBreaker() throws Exception {
+        CircuitBreaker circuitBreaker = new CircuitBreaker(50, 100, Duration.of(1, ChronoUnit.MINUTES),
+                Duration.of(10, ChronoUnit.SECONDS), 2, Duration.of(1, ChronoUnit.MINUTES), 1);
+        RetryMetrics metrics = new RetryMetrics("circuit-breaker");
+        Retrier retrier = create(withRetryCount(5), withCircuitBreaker(circuitBreaker), withListener(metrics));
+
+        AtomicInteger count = new AtomicInteger(0);
+
+        try {
+            retrier.retry(() -> {
+                count.incrementAndGet();
+                throw new IllegalStateException("123");
+            });
+            fail("Should have got IllegalStateException.");
+        } catch (IllegalStateException e) {
+            assertThat(e.getMessage(), is("123"));
+        }
+
+        // Breaker opened on the second failure, so no more retries.
+        assertThat(count.get(), is(2));
+        assertThat(circuitBreaker.getState(), is(CircuitBreaker.Kind.OPEN));
+
+        try {
+            retrier.retry(() -> count.incrementAndGet());
+            fail("Should have got CircuitBreakerOpenException.");
+        } catch (CircuitBreakerOpenException e) {
+            assertThat(count.get(), is(2));
+        }
+
+        // Rejected call is counted as a call as well, but not as an exhausted failure.
+        assertThat(metrics.getCalls(), is(2L));
+        assertThat(metrics.getExhaustedFailures(), is(1L));
+        assertThat(metrics.getRejections(), is(1L));
+    }
+
+    @Test
+    public void testCircuitBreakerHalfOpenOnError() throws Exception {
+        CircuitBreaker circuitBreaker = new CircuitBreaker(50, 100, Duration.of(1, ChronoUnit.MINUTES),
+                Duration.of(10, ChronoUnit.SECONDS), 2, Duration.ZERO, 1);
+        Retrier retrier = create(withRetryCount(2), withCircuitBreaker(circuitBreaker));
+
+        try {
+            retrier.retry(() -> {
+                throw new IllegalStateException("123");
+            });
+            fail("Should have got IllegalStateException.");
+        } catch (IllegalStateException e) {
+            assertThat(circuitBreaker.getState(), is(CircuitBreaker.Kind.OPEN));
+        }
+
+        // Trial call failing with an Error gives its permission back, instead of keeping the breaker half open for good.
+        try {
+            retrier.retry(() -> {
+                throw new AssertionError("456");
+            });
+            fail("Should have got AssertionError.");
+        } catch (AssertionError e) {
+            assertThat(circuitBreaker.getState(), is(CircuitBreaker.Kind.HALF_OPEN));
+        }
+
+        assertThat(retrier.retry(() -> "Done"), is("Done"));
+        assertThat(circuitBreaker.getState(), is(CircuitBreaker.Kind.CLOSED));
+    }
+
+    @Test
+    public void testHedging() throws Exception {
+        Retrier retrier = create(withRetryCount(3), withHedging(Duration.of(50, ChronoUnit.MILLIS), 2));
+
+        AtomicInteger count = new AtomicInteger(0);
+
+        long start = System.nanoTime();
+        String result = retrier.retry(() -> {
+            // First call is stuck, the hedge started after the delay wins.
+            if (count.incrementAndGet() == 1) {
+                Thread.sleep(5000);
+                return "Slow";
+            }
+            return "Fast";
+        });
+
+        assertThat(result, is("Fast"));
+        assertThat(count.get(), is(2));
+        assertThat(Duration.ofNanos(System.nanoTime() - start).toMillis() < 5000, is(true));
+    }
+
+    @Test
+    public void testHedgingPermits() throws Exception {
+        // Hedge takes its own bulkhead permit, so none is started while the first call holds the only one.
+        Bulkhead bulkhead = new Bulkhead(1, 0, Duration.ZERO);
+        Retrier retrier = create(withRetryCount(3), withBulkhead(bulkhead), withHedging(Duration.of(50, ChronoUnit.MILLIS), 2));
+        AtomicInteger count = new AtomicInteger(0);
+
+        String result = retrier.retry(() -> {
+            if (count.incrementAndGet() == 1) {
+                Thread.sleep(200);
+                return "Slow";
+            }
+            return "Fast";
+        });
+
+        assertThat(result, is("Slow"));
+        assertThat(count.get(), is(1));
+        assertThat(bulkhead.getAvailablePermits(), is(1));
+
+        // With a permit to spare, the hedge runs and gives its permit back once done.
+        Bulkhead largerBulkhead = new Bulkhead(2, 0, Duration.ZERO);
+        retrier = create(withRetryCount(3), withBulkhead(largerBulkhead), withHedging(Duration.of(50, ChronoUnit.MILLIS), 2));
+        count.set(0);
+        CountDownLatch slowDone = new CountDownLatch(1);
+
+        result = retrier.retry(() -> {
+            if (count.incrementAndGet() == 1) {
+                try {
+                    Thread.sleep(5000);
+                    return "Slow";
+                } finally {
+                    slowDone.countDown();
+                }
+            }
+            return "Fast";
+        });
+
+        assertThat(result, is("Fast"));
+        assertThat(count.get(), is(2));
+        assertThat(slowDone.await(5, TimeUnit.SECONDS), is(true));
+        assertThat(largerBulkhead.getAvailablePermits(), is(2));
+    }
+
+    @Test
+    public void testHedgingNotRetryable() throws Exception {
+        Retrier retrier = create(withRetryCount(3), withHedging(Duration.of(50, ChronoUnit.MILLIS), 2));
+        AtomicInteger count = new AtomicInteger(0);
+
+        // Hedge failing with an exception which is not handled fails the group, without waiting for the stuck call.
+        long start = System.nanoTime();
+        try {
+            retrier.retry(on(IllegalStateException.class), () -> {
+                if (count.incrementAndGet() == 1) {
+                    Thread.sleep(5000);
+                    return "Slow";
+                }
+                throw new IllegalArgumentException("123");
+            });
+            fail("Should have got IllegalArgumentException.");
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is("123"));
+        }
+
+        assertThat(count.get(), is(2));
+        assertThat(Duration.ofNanos(System.nanoTime() - start).toMillis(), is(lessThan(5000L)));
+    }
+
+    @Test
+    public void testAttemptTimeoutAndDeadline() throws Exception {
+        Retrier retrier = create(withRetryCount(5),
+                withAttemptTimeout(Duration.of(50, ChronoUnit.MILLIS)),
+                withDeadline(Duration.of(500, ChronoUnit.MILLIS)));
+
+        AtomicInteger count = new AtomicInteger(0);
+        CountDownLatch interrupted = new CountDownLatch(1);
+
+        // First attempt hangs and gets cancelled, the second one succeeds.
+        String result = retrier.retry(() -> {
+            if (count.incrementAndGet() == 1) {
+                try {
+                    Thread.sleep(5000);
+                } catch (InterruptedException e) {
+                    interrupted.countDown();
+                    throw e;
+                }
+            }
+            return "Done";
+        });
+
+        assertThat(result, is("Done"));
+        assertThat(count.get(), is(2));
+        assertThat(interrupted.await(5, TimeUnit.SECONDS), is(true));
+
+        // Backoff which would end past the deadline is not waited at all.
+        retrier = create(withDeadline(Duration.of(200, ChronoUnit.MILLIS)), withExpBackoff(Duration.of(5, ChronoUnit.SECONDS)));
+        count.set(0);
+
+        long start = System.nanoTime();
+        try {
+            retrier.retry(() -> {
+                count.incrementAndGet();
+                throw new IllegalStateException("123");
+            });
+            fail("Should have got IllegalStateException.");
+        } catch (IllegalStateException e) {
+            assertThat(count.get(), is(1));
+            assertThat(Duration.ofNanos(System.nanoTime() - start).toMillis() < 5000, is(true));
+        }
+    }
+
+    @Test
+    public void testAttemptTimeoutOnSaturatedExecutor() throws Exception {
+        // Executor with its only thread busy rejects the attempts, which then run on the caller and are still timed out.
+        ExecutorService executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS, new SynchronousQueue<>());
+        CountDownLatch release = new CountDownLatch(1);
+        executor.submit(() -> {
+            release.await();
+            return null;
+        });
+        try {
+            Retrier retrier = create(withRetryCount(2), withAttemptTimeout(Duration.of(100, ChronoUnit.MILLIS)), withExecutor(executor));
+            AtomicInteger count = new AtomicInteger(0);
+            long start = System.nanoTime();
+
+            try {
+                retrier.retry(() -> {
+                    count.incrementAndGet();
+                    Thread.sleep(5000);
+                    return "Done";
+                });
+                fail("Should have got TimeoutException.");
+            } catch (TimeoutException e) {
+                assertThat(count.get(), is(2));
+                assertThat(Duration.ofNanos(System.nanoTime() - start).toMillis(), is(lessThan(5000L)));
+                assertThat(Thread.currentThread().isInterrupted(), is(false));
+            }
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testRetryContext() throws Exception {
+        Retrier retrier = create(withRetryCount(3), withTimeout(Duration.of(5, ChronoUnit.SECONDS)));
+
+        List<String> events = new ArrayList<>();
+        IllegalStateException failure = new IllegalStateException("123");
+
+        String result = retrier.retry(on(IllegalStateException.class), context -> {
+            assertThat(context.getRemainingTimeInNanos() <= Duration.of(5, ChronoUnit.SECONDS).toNanos(), is(true));
+            events.add(context.getAttempt() + " " + (context.getLastFailure() == null ? "none" : context.getLastFailure().getMessage()));
+            if (context.getAttempt() < 3) {
+                throw failure;
+            }
+            return "Done";
+        });
+
+        assertThat(result, is("Done"));
+        assertThat(events, is(Arrays.asList("1 none", "2 123", "3 123")));
+    }
+
+    @Test
+    public void testBulkhead() throws Exception {
+        Bulkhead bulkhead = new Bulkhead(1, 0, Duration.of(5, ChronoUnit.SECONDS));
+        Retrier retrier = create(withRetryCount(2), withExpBackoff(Duration.of(500, ChronoUnit.MILLIS)), withBulkhead(bulkhead));
+
+        CountDownLatch failed = new CountDownLatch(1);
+        CompletableFuture<String> backingOff = CompletableFuture.supplyAsync(() -> {
+            try {
+                return retrier.retry(() -> {
+                    if (failed.getCount() > 0) {
+                        failed.countDown();
+                        throw new IllegalStateException("123");
+                    }
+                    return "First";
+                });
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        // Permit is not held by the call backing off.
+        assertThat(failed.await(5, TimeUnit.SECONDS), is(true));
+        Thread.sleep(50);
+        assertThat(bulkhead.getAvailablePermits(), is(1));
+        assertThat(retrier.retry(() -> "Second"), is("Second"));
+
+        assertThat(backingOff.get(5, TimeUnit.SECONDS), is("First"));
+
+        // Attempt is rejected right away once the wait queue is full.
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> inFlight = CompletableFuture.supplyAsync(() -> {
+            try {
+                return retrier.retry(() -> {
+                    started.countDown();
+                    release.await();
+                    return "Third";
+                });
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertThat(started.await(5, TimeUnit.SECONDS), is(true));
+        try {
+            retrier.retry(() -> "Fourth");
+            fail("Should have got BulkheadFullException.");
+        } catch (BulkheadFullException e) {
+            assertThat(e.getMessage(), is("Bulkhead is full."));
+        } finally {
+            release.countDown();
+        }
+        assertThat(inFlight.get(5, TimeUnit.SECONDS), is("Third"));
+    }
+
+    @Test
+    public void testBulkheadReleasedOnError() throws Exception {
+        Bulkhead bulkhead = new Bulkhead(1, 0, Duration.ZERO);
+        Retrier retrier = create(withRetryCount(2), withBulkhead(bulkhead));
+
+        try {
+            retrier.retry(() -> {
+                throw new AssertionError("123");
+            });
+            fail("Should have got AssertionError.");
+        } catch (AssertionError e) {
+            assertThat(e.getMessage(), is("123"));
+        }
+        assertThat(bulkhead.getAvailablePermits(), is(1));
+        assertThat(retrier.retry(() -> "Done"), is("Done"));
+
+        CompletableFuture<String> failed = new CompletableFuture<>();
+        failed.completeExceptionally(new AssertionError("456"));
+        try {
+            retrier.retryAsync(() -> failed).get(5, TimeUnit.SECONDS);
+            fail("Should have got AssertionError.");
+        } catch (ExecutionException e) {
+            assertThat(e.getCause().getMessage(), is("456"));
+        }
+        assertThat(bulkhead.getAvailablePermits(), is(1));
+    }
+
+    @Test
+    public void testRetryAll() throws Exception {
+        Retrier retrier = create(withRetryCount(3), withExpBackoff(Duration.of(10, ChronoUnit.MILLIS)));
+
+        // Item i fails i times, item 3 can't be retried, item 4 fails every time.
+        AtomicInteger[] counts = new AtomicInteger[5];
+        List<Callable<Integer>> items = new ArrayList<>();
+        for (int i = 0; i < counts.length; i++) {
+            int item = i;
+            counts[i] = new AtomicInteger();
+            items.add(() -> {
+                int count = counts[item].incrementAndGet();
+                if (item == 3) {
+                    throw new IllegalArgumentException("item " + item);
+                }
+                if (item == 4 || count <= item) {
+                    throw new IllegalStateException("item " + item);
+                }
+                return item;
+            });
+        }
+
+        List<BatchResult<Integer>> results = retrier.retryAll(on(IllegalStateException.class), items, 2);
+
+        assertThat(results.get(0).get(), is(0));
+        assertThat(results.get(1).get(), is(1));
+        assertThat(results.get(2).get(), is(2));
+        assertThat(results.get(3).getException().getMessage(), is("item 3"));
+        assertThat(results.get(4).getException().getMessage(), is("item 4"));
+
+        // Successful items are not run again.
+        assertThat(Arrays.asList(counts[0].get(), counts[1].get(), counts[2].get(), counts[3].get(), counts[4].get()), is(Arrays.asList(1, 2, 3, 1, 3)));
+        assertThat(results.get(4).getAttempts(), is(3));
+    }
+
+    @Test
+    public void testRetryAllPerItemPermits() throws Exception {
+        Bulkhead bulkhead = new Bulkhead(1, 10, Duration.of(5, ChronoUnit.SECONDS));
+        RetryMetrics metrics = new RetryMetrics("retry-all");
+        Retrier retrier = create(withRetryCount(2), withBulkhead(bulkhead), withListener(metrics));
+
+        // Every item holds its own permit, so the items never run concurrently above the cap of the bulkhead.
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        List<Callable<Integer>> items = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            int item = i;
+            items.add(() -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                Thread.sleep(20);
+                running.decrementAndGet();
+                return item;
+            });
+        }
+
+        List<BatchResult<Integer>> results = retrier.retryAll(items, 4);
+        for (int i = 0; i < 4; i++) {
+            assertThat(results.get(i).get(), is(i));
+        }
+        assertThat(maxRunning.get(), is(1));
+        assertThat(bulkhead.getAvailablePermits(), is(1));
+
+        // And every item is a call of its own.
+        assertThat(metrics.getCalls(), is(4L));
+        assertThat(metrics.getFirstTrySuccesses(), is(4L));
+    }
+
+    @Test
+    public void testRetryAllAttemptTimeout() throws Exception {
+        // Single thread of the executor is a worker, the attempt timeout doesn't need another one.
+        ExecutorService executor = Executors.newFixedThreadPool(1);
+        try {
+            Retrier retrier = create(withRetryCount(2), withAttemptTimeout(Duration.of(100, ChronoUnit.MILLIS)), withExecutor(executor));
+            AtomicInteger count = new AtomicInteger();
+            List<Callable<String>> items = Arrays.asList(() -> {
+                if (count.incrementAndGet() == 1) {
+                    Thread.sleep(5000);
+                }
+                return "First";
+            }, () -> "Second");
+
+            long startTime = System.nanoTime();
+            List<BatchResult<String>> results = retrier.retryAll(items, 2);
+            assertThat(results.get(0).get(), is("First"));
+            assertThat(results.get(0).getAttempts(), is(2));
+            assertThat(results.get(1).get(), is("Second"));
+            assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime), is(lessThan(2000L)));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testSingleFlight() throws Exception {
+        Retrier retrier = create(withRetryCount(3), withExpBackoff(Duration.of(10, ChronoUnit.MILLIS)));
+
+        AtomicInteger count = new AtomicInteger(0);
+        CountDownLatch release = new CountDownLatch(1);
+        Callable<String> callable = () -> {
+            // First attempt fails, the retry of the shared call succeeds.
+            if (count.incrementAndGet() == 1) {
+                release.await();
+                throw new IllegalStateException("123");
+            }
+            return "Done";
+        };
+
+        ExecutorService executor = Executors.newFixedThreadPool(10);
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            results.add(executor.submit(() -> retrier.retry("key", callable)));
+        }
+
+        // Give all the callers time to join the call in flight.
+        Thread.sleep(200);
+        release.countDown();
+        for (Future<String> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS), is("Done"));
+        }
+        executor.shutdown();
+        assertThat(count.get(), is(2));
+
+        // Key is released once completed.
+        assertThat(retrier.retry("key", callable), is("Done"));
+        assertThat(count.get(), is(3));
+    }
+
+    @Test
+    public void testSingleFlightJoinerHandler() throws Exception {
+        Retrier retrier = create(withRetryCount(3));
+
+        AtomicInteger count = new AtomicInteger(0);
+        CountDownLatch release = new CountDownLatch(1);
+        Callable<String> callable = () -> {
+            if (count.incrementAndGet() == 1) {
+                release.await();
+                throw new IllegalArgumentException("123");
+            }
+            return "Done";
+        };
+
+        // Joiner would retry the exception, but the call in flight only runs with the handler of the first caller.
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        Future<String> first = executor.submit(() -> retrier.retry("key", on(IllegalStateException.class), callable));
+        Thread.sleep(100);
+        Future<String> joiner = executor.submit(() -> retrier.retry("key", on(IllegalArgumentException.class), callable));
+        Thread.sleep(100);
+        release.countDown();
+
+        for (Future<String> result : Arrays.asList(first, joiner)) {
+            try {
+                result.get(5, TimeUnit.SECONDS);
+                fail("Should have got IllegalArgumentException.");
+            } catch (ExecutionException e) {
+                assertThat(e.getCause().getClass(), is(equalTo(IllegalArgumentException.class)));
+            }
+        }
+        executor.shutdown();
+        assertThat(count.get(), is(1));
+    }
+
+    @Test
+    public void testSingleFlightReentrant() throws Exception {
+        Retrier retrier = create(withRetryCount(1));
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        // Same key from within the callable waits for itself, until interrupted.
+        Future<String> reentrant = executor.submit(() -> retrier.retry("key", () -> retrier.retry("key", () -> "Done")));
+        try {
+            reentrant.get(200, TimeUnit.MILLISECONDS);
+            fail("Should have got TimeoutException.");
+        } catch (TimeoutException e) {
+            reentrant.cancel(true);
+        }
+
+        // Interrupted call releases the key.
+        Future<String> next = executor.submit(() -> retrier.retry("key", () -> "Done"));
+        assertThat(next.get(5, TimeUnit.SECONDS), is("Done"));
+        executor.shutdown();
+    }
+
+    @Test
+    public void testSingleFlightSneakyThrow() throws Exception {
+        Retrier retrier = create(withRetryCount(1));
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        // Throwable which is neither an Exception nor an Error still releases the key.
+        Future<String> sneaky = executor.submit(() -> retrier.retry("key", () -> {
+            sneakyThrow(new Throwable("123"));
+            return "Done";
+        }));
+        try {
+            sneaky.get(5, TimeUnit.SECONDS);
+            fail("Should have got Throwable.");
+        } catch (ExecutionException e) {
+            assertThat(e.getCause().getMessage(), is("123"));
+        }
+
+        Future<String> next = executor.submit(() -> retrier.retry("key", () -> "Done"));
+        assertThat(next.get(5, TimeUnit.SECONDS), is("Done"));
+        executor.shutdown();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <E extends Throwable> void sneakyThrow(Throwable t) throws E {
+        throw (E) t;
+    }
+
+    @Test
+    public void testRetryOnResult() throws Exception {
+        Retrier retrier = create(withRetryCount(3), withExpBackoff(Duration.of(10, ChronoUnit.MILLIS)),
+                withRetryOnResult((Integer status) -> status == 503));
+
+        // Retryable result gets retried until a different result is returned.
+        AtomicInteger count = new AtomicInteger(0);
+        assertThat(retrier.retry(() -> count.incrementAndGet() < 3 ? 503 : 200), is(200));
+        assertThat(count.get(), is(3));
+
+        // Last retryable result is returned once the retry count is exceeded.
+        count.set(0);
+        assertThat(retrier.retry(() -> {
+            count.incrementAndGet();
+            return 503;
+        }), is(503));
+        assertThat(count.get(), is(3));
+
+        // Predicate failing on a result of another type fails the call once, instead of retrying it.
+        count.set(0);
+        try {
+            retrier.retry(() -> {
+                count.incrementAndGet();
+                return "ok";
+            });
+            fail("Should have got ClassCastException.");
+        } catch (ClassCastException e) {
+            assertThat(count.get(), is(1));
+        }
+
+        // Runner has no result to be tested.
+        count.set(0);
+        retrier.retry(() -> {
+            count.incrementAndGet();
+        });
+        assertThat(count.get(), is(1));
+
+        // Predicate of the call takes precedence over the one of the retrier.
+        count.set(0);
+        assertThat(retrier.retry(Retrier.ON_ALL_EXCEPTION, () -> count.incrementAndGet() < 2 ? "" : "ok", String::isEmpty), is("ok"));
+        assertThat(count.get(), is(2));
+    }
+
+    @Test
+    public void testAttemptHistory() throws Exception {
+        Retrier retrier = create(withRetryCount(5), withExpBackoff(Duration.of(1, ChronoUnit.MILLIS)), withAttemptHistory(3, true, 1));
+
+        AtomicInteger count = new AtomicInteger(0);
+        try {
+            retrier.retry(() -> {
+                throw new IllegalStateException("Failure " + count.incrementAndGet());
+            });
+            fail("Should have got RetriesExhaustedException.");
+        } catch (RetriesExhaustedException e) {
+            assertThat(e.getLimit(), is(RetryListener.Limit.RETRY_COUNT));
+            assertThat(e.getFailedAttempts(), is(5));
+            assertThat(e.getCause().getMessage(), is("Failure 5"));
+            assertThat(e.getStackTrace().length, is(0));
+
+            // Only the last 3 attempts are kept, and only the one before the last is suppressed.
+            assertThat(e.getHistory().size(), is(3));
+            assertThat(e.getHistory().get(0).getAttempt(), is(3));
+            assertThat(e.getHistory().get(0).getMessage(), is("Failure 3"));
+            assertThat(e.getHistory().get(0).getDelayInMillisec(), is(greaterThan(0L)));
+            assertThat(e.getHistory().get(2).getExceptionClass(), is(equalTo(IllegalStateException.class)));
+            assertThat(e.getSuppressed().length, is(1));
+            assertThat(e.getSuppressed()[0].getMessage(), is("Failure 4"));
+        }
+
+        // Exception which is not retried is raised as is.
+        try {
+            retrier.retry(on(IllegalArgumentException.class), () -> {
+                throw new IllegalStateException("123");
+            });
+            fail("Should have got IllegalStateException.");
+        } catch (IllegalStateException e) {
+            assertThat(e.getMessage(), is("123"));
+        }
+
+        // Even on the last attempt, where the retry count is exceeded as well.
+        count.set(0);
+        try {
+            retrier.retry(on(IllegalArgumentException.class), () -> {
+                if (count.incrementAndGet() < 5) {
+                    throw new IllegalArgumentException("123");
+                }
+                throw new IllegalStateException("456");
+            });
+            fail("Should have got IllegalStateException.");
+        } catch (IllegalStateException e) {
+            assertThat(e.getMessage(), is("456"));
+        }
+
+        try {
+            create(withRetryCount(1), withAttemptHistory(3)).retry(on(IllegalArgumentException.class), () -> {
+                throw new IllegalStateException("789");
+            });
+            fail("Should have got IllegalStateException.");
+        } catch (IllegalStateException e) {
+            assertThat(e.getMessage(), is("789"));
+        }
+    }
+
+    @Test
+    public void testRetryEach() throws Exception {
+        Retrier retrier = create(withRetryCount(3), withExpBackoff(Duration.of(1, ChronoUnit.MILLIS)));
+
+        // Every tenth element fails on its first attempt, every hundredth one on all its attempts.
+        Set<Integer> failed = ConcurrentHashMap.newKeySet();
+        ParallelResult<Integer, Integer> result = retrier.retryEach(IntStream.range(0, 1000).boxed(), i -> {
+            if (i % 100 == 0 || (i % 10 == 0 && failed.add(i))) {
+                throw new IllegalStateException("Failed " + i);
+            }
+            return i * 2;
+        });
+
+        assertThat(result.isSuccess(), is(false));
+        assertThat(result.getResults().size(), is(990));
+        assertThat(result.getResults().get(0), is(2));
+        assertThat(result.getResults().get(989), is(1998));
+        assertThat(result.getExhaustedElements(), is(Arrays.asList(0, 100, 200, 300, 400, 500, 600, 700, 800, 900)));
+        assertThat(result.getExceptions().get(1).getMessage(), is("Failed 100"));
+
+        // Failure of the stream itself is raised with its type (fork-join pool might wrap it in a copy of the same type).
+        try {
+            retrier.retryEach(IntStream.range(0, 100).boxed().map(i -> {
+                if (i == 50) {
+                    throw new IllegalArgumentException("Stream failed");
+                }
+                return i;
+            }), i -> i);
+            fail("Should have got IllegalArgumentException.");
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), containsString("Stream failed"));
+        }
+    }
+
+    @Test
+    public void testManagedBlocking() throws Exception {
+        Retrier retrier = create(withRetryCount(2), withExpBackoff(Duration.of(500, ChronoUnit.MILLIS)));
+        ForkJoinPool pool = new ForkJoinPool(1);
+
+        // Only worker of the pool backs off, the pool compensates so the other task doesn't wait for it.
+        AtomicInteger count = new AtomicInteger(0);
+        CountDownLatch failed = new CountDownLatch(1);
+        ForkJoinTask<String> retrying = pool.submit(() -> retrier.retry(() -> {
+            if (count.incrementAndGet() == 1) {
+                failed.countDown();
+                throw new IllegalStateException("123");
+            }
+            return "Done";
+        }));
+        failed.await();
+        ForkJoinTask<String> other = pool.submit(() -> "Other");
+
+        assertThat(other.get(250, TimeUnit.MILLISECONDS), is("Other"));
+        assertThat(retrying.isDone(), is(false));
+        assertThat(retrying.get(5, TimeUnit.SECONDS), is("Done"));
+        pool.shutdown();
+    }
+
+    @Test
+    public void testVirtualClock() throws Exception {
+        // Same limits as the default retrier, run in virtual time.
+        VirtualClock clock = new VirtualClock();
+        Retrier retrier = create(withRetryCount(5), withTimeout(Duration.ofSeconds(15)),
+                withExpBackoff(Duration.ofSeconds(1)), withVirtualClock(clock));
+
+        AtomicInteger count = new AtomicInteger(0);
+        long startTime = System.nanoTime();
+        try {
+            retrier.retry(() -> {
+                count.incrementAndGet();
+                throw new IllegalStateException("123");
+            });
+            fail("Should have got IllegalStateException.");
+        } catch (IllegalStateException e) {
+            assertThat(e.getMessage(), is("123"));
+        }
+
+        // Backoff of 1s, 2s, 4s and 8s is waited out, the last one ending right on the timeout so the last attempt still runs.
+        assertThat(count.get(), is(5));
+        assertThat(clock.elapsed(), is(Duration.ofSeconds(15)));
+        assertThat(System.nanoTime() - startTime, is(lessThan(TimeUnit.SECONDS.toNanos(1))));
+    }
+
+    @Test
+    public void testCircuitBreakerOptionVirtualClock() throws Exception {
+        // Breaker of the option follows the virtual clock, even when given before it.
+        VirtualClock clock = new VirtualClock();
+        Retrier retrier = create(withCircuitBreaker(50, Duration.ofMinutes(1)), withRetryCount(1), withVirtualClock(clock));
+
+        for (int i = 0; i < 10; i++) {
+            try {
+                retrier.retry(() -> {
+                    throw new IllegalStateException("123");
+                });
+                fail("Should have got IllegalStateException.");
+            } catch (IllegalStateException e) {
+                assertThat(e.getMessage(), is("123"));
+            }
+        }
+        try {
+            retrier.retry(() -> "Hello");
+            fail("Should have got CircuitBreakerOpenException.");
+        } catch (CircuitBreakerOpenException e) {
+        }
+
+        // Trial call is permitted once the wait duration has passed in virtual time.
+        clock.advance(Duration.ofMinutes(1));
+        assertThat(retrier.retry(() -> "Hello"), is("Hello"));
+    }
+
+    @Test
+    public void testRetryBudgetOptionVirtualClock() throws Exception {
+        // Budget of the option follows the virtual clock, even when given before it: 10 retries over the window of 10 seconds.
+        VirtualClock clock = new VirtualClock();
+        Retrier retrier = create(withRetryBudget(0, 1), withRetryCount(100), withVirtualClock(clock));
+
+        AtomicInteger count = new AtomicInteger(0);
+        for (int i = 0; i < 2; i++) {
+            count.set(0);
+            try {
+                retrier.retry(() -> {
+                    count.incrementAndGet();
+                    throw new IllegalStateException("123");
+                });
+                fail("Should have got IllegalStateException.");
+            } catch (IllegalStateException e) {
+                assertThat(e.getMessage(), is("123"));
+            }
+            assertThat(count.get(), is(11));
+
+            // Spent budget is deposited again once the window has passed in virtual time.
+            clock.advance(Duration.ofSeconds(RetryBudget.WINDOW_SECONDS));
+        }
+    }
+
+    @Test
+    public void testCircuitBreakerStaleRelease() {
+        CircuitBreaker circuitBreaker = new CircuitBreaker(50, 100, Duration.of(1, ChronoUnit.MINUTES),
+                Duration.of(10, ChronoUnit.SECONDS), 1, Duration.ZERO, 1);
+        circuitBreaker.onFailure(0);
+        assertThat(circuitBreaker.getState(), is(CircuitBreaker.Kind.OPEN));
+
+        // Trial call of the first half open state, which is opened again by another call in the meantime.
+        CircuitBreaker.Permission stale = circuitBreaker.tryAcquirePermission();
+        assertThat(stale, is(notNullValue()));
+        circuitBreaker.onFailure(0);
+        assertThat(circuitBreaker.getState(), is(CircuitBreaker.Kind.OPEN));
+
+        // Trial call of the next half open state.
+        assertThat(circuitBreaker.tryAcquirePermission(), is(notNullValue()));
+        assertThat(circuitBreaker.getState(), is(CircuitBreaker.Kind.HALF_OPEN));
+
+        // Stale permission given back doesn't let another trial call in.
+        circuitBreaker.releasePermission(stale);
+        assertThat(circuitBreaker.tryAcquirePermission(), is(nullValue()));
+    }
+
+    @Test
+    public void testBackoffCutToTimeout() throws Exception {
+        VirtualClock clock = new VirtualClock();
+        Retrier retrier = create(withRetryCount(3), withTimeout(Duration.ofSeconds(10)),
+                withExpBackoff(Duration.ofSeconds(4)), withVirtualClock(clock));
+
+        AtomicInteger count = new AtomicInteger(0);
+        try {
+            retrier.retry(() -> {
+                count.incrementAndGet();
+                throw new IllegalStateException("123");
+            });
+            fail("Should have got IllegalStateException.");
+        } catch (IllegalStateException e) {
+            assertThat(e.getMessage(), is("123"));
+        }
+
+        // Backoff of 8s is cut to the 6s left, so the last attempt still runs on the timeout.
+        assertThat(count.get(), is(3));
+        assertThat(clock.elapsed(), is(Duration.ofSeconds(10)));
+
+        // Backoff ending past the deadline is not waited at all.
+        VirtualClock deadlineClock = new VirtualClock();
+        Retrier deadlineRetrier = create(withRetryCount(3), withDeadline(Duration.ofSeconds(10)),
+                withExpBackoff(Duration.ofSeconds(4)), withVirtualClock(deadlineClock));
+
+        count.set(0);
+        try {
+            deadlineRetrier.retry(() -> {
+                count.incrementAndGet();
+                throw new IllegalStateException("123");
+            });
+            fail("Should have got IllegalStateException.");
+        } catch (IllegalStateException e) {
+            assertThat(e.getMessage(), is("123"));
+        }
+
+        assertThat(count.get(), is(2));
+        assertThat(deadlineClock.elapsed(), is(Duration.ofSeconds(4)));
+    }
+
+    @Test
+    public void testCircuitBreakerVirtualClock() throws Exception {
+        // Breaker created with the clock of the retrier waits out its open state in virtual time as well.
+        VirtualClock clock = new VirtualClock();
+        CircuitBreaker circuitBreaker = new CircuitBreaker(50, 100, Duration.of(1, ChronoUnit.MINUTES),
+                Duration.of(10, ChronoUnit.SECONDS), 2, Duration.of(1, ChronoUnit.MINUTES), 1, clock);
+        Retrier retrier = create(withRetryCount(2), withCircuitBreaker(circuitBreaker), withVirtualClock(clock));
+
+        try {
+            retrier.retry(() -> {
+                throw new IllegalStateException("123");
+            });
+            fail("Should have got IllegalStateException.");
+        } catch (IllegalStateException e) {
+            assertThat(circuitBreaker.getState(), is(CircuitBreaker.Kind.OPEN));
+        }
+
+        clock.advance(Duration.of(30, ChronoUnit.SECONDS));
+        assertThat(circuitBreaker.isOpen(), is(true));
+
+        clock.advance(Duration.of(1, ChronoUnit.MINUTES));
+        assertThat(retrier.retry(() -> "Done"), is("Done"));
+        assertThat(circuitBreaker.getState(), is(CircuitBreaker.Kind.CLOSED));
+    }
 }
@@ -63,4 +63,46 @@ public class TestHandler {
             fail("Should have got IllegalStateException.");
         }
     }
+
+    @Test
+    public void testUnhandledException() {
+        Retrier retrier = create(withRetryCount(3));
+
+        AtomicInteger count = new AtomicInteger(0);
+
+        try {
+            retrier.retry(Retry.on(IllegalStateException.class), () -> {
+                count.incrementAndGet();
+                throw new IllegalArgumentException("");
+            });
+            fail("Should have got IllegalArgumentException.");
+        } catch (Exception e) {
+            assertThat(e.getClass(), is(equalTo(IllegalArgumentException.class)));
+        }
+
+        assertThat(count.get(), is(1));
+    }
+
+    @Test
+    public void testCyclicNestedException() {
+        Retrier retrier = create(withRetryCount(3));
+
+        RuntimeException first = new RuntimeException("first");
+        RuntimeException second = new RuntimeException("second", first);
+        first.initCause(second);
+
+        AtomicInteger count = new AtomicInteger(0);
+
+        try {
+            retrier.retry(onNested(IllegalArgumentException.class), () -> {
+                count.incrementAndGet();
+                throw first;
+            });
+            fail("Should have got RuntimeException.");
+        } catch (Exception e) {
+            assertThat(e, is(first));
+        }
+
+        assertThat(count.get(), is(1));
+    }
 }
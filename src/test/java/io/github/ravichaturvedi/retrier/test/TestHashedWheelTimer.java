@@ -0,0 +1,85 @@
+/*
+ * Copyright 2017 The Retrier AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.retrier.test;
+
+
+import io.github.ravichaturvedi.retrier.Retrier;
+import io.github.ravichaturvedi.retrier.timer.HashedWheelTimer;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.github.ravichaturvedi.retrier.Retriers.*;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class TestHashedWheelTimer {
+
+    @Test
+    public void testScheduleAndCancel() throws Exception {
+        HashedWheelTimer timer = new HashedWheelTimer(Duration.of(1, ChronoUnit.MILLIS), 8);
+        try {
+            List<Integer> expired = new CopyOnWriteArrayList<>();
+            CountDownLatch latch = new CountDownLatch(3);
+
+            // Delays span more than a round of the wheel, and far enough apart that a slow scheduling thread doesn't change their order.
+            timer.schedule(() -> { expired.add(300); latch.countDown(); }, 300, TimeUnit.MILLISECONDS);
+            timer.schedule(() -> { expired.add(10); latch.countDown(); }, 10, TimeUnit.MILLISECONDS);
+            ScheduledFuture<?> cancelled = timer.schedule(() -> expired.add(200), 200, TimeUnit.MILLISECONDS);
+            timer.schedule(() -> { expired.add(100); latch.countDown(); }, 100, TimeUnit.MILLISECONDS);
+
+            assertThat(cancelled.cancel(false), is(true));
+            assertThat(latch.await(5, TimeUnit.SECONDS), is(true));
+            assertThat(expired, contains(10, 100, 300));
+
+            ScheduledFuture<String> result = timer.schedule(() -> "Hello", 5, TimeUnit.MILLISECONDS);
+            assertThat(result.get(5, TimeUnit.SECONDS), is("Hello"));
+        } finally {
+            timer.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testAsyncRetry() throws Exception {
+        Retrier retrier = create(withRetryCount(3),
+                withExpBackoff(Duration.of(10, ChronoUnit.MILLIS)),
+                withHashedWheelTimer());
+
+        AtomicInteger count = new AtomicInteger(0);
+
+        CompletableFuture<String> result = retrier.retryAsync(() -> {
+            CompletableFuture<String> future = new CompletableFuture<>();
+            if (count.incrementAndGet() < 3) {
+                future.completeExceptionally(new IllegalStateException("123"));
+            } else {
+                future.complete("Hello");
+            }
+            return future;
+        });
+
+        assertThat(result.get(5, TimeUnit.SECONDS), is("Hello"));
+        assertThat(count.get(), is(3));
+    }
+}
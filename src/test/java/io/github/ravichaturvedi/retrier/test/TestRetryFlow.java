@@ -0,0 +1,212 @@
+/*
+ * Copyright 2017 The Retrier AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.retrier.test;
+
+
+import io.github.ravichaturvedi.retrier.Retrier;
+import io.github.ravichaturvedi.retrier.RetryListener;
+import io.github.ravichaturvedi.retrier.bulkhead.Bulkhead;
+import io.github.ravichaturvedi.retrier.flow.Flow;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.github.ravichaturvedi.retrier.Retriers.*;
+import static io.github.ravichaturvedi.retrier.Retry.on;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+public class TestRetryFlow {
+
+    private static final Object COMPLETE = new Object();
+
+    @Test
+    public void testResumeFromPosition() throws Exception {
+        Retrier retrier = create(withRetryCount(3), withExpBackoff(Duration.of(10, ChronoUnit.MILLIS)));
+
+        // Stream of 10 elements, the first subscription failing at element 3 and the second one at element 7.
+        List<Integer> failures = new ArrayList<>(Arrays.asList(3, 7));
+        AtomicInteger subscriptions = new AtomicInteger();
+        Flow.Publisher<Integer> publisher = retrier.retryFlow(null, (Integer position) -> {
+            subscriptions.incrementAndGet();
+            return new RangePublisher(position == null ? 0 : position + 1, 10, failures.isEmpty() ? -1 : failures.remove(0));
+        }, item -> item);
+
+        TestSubscriber subscriber = new TestSubscriber();
+        publisher.subscribe(subscriber);
+
+        // Demand not satisfied before the failure is kept for the next subscription.
+        subscriber.subscription.request(5);
+        for (int i = 0; i < 5; i++) {
+            assertThat(subscriber.events.poll(5, TimeUnit.SECONDS), is(i));
+        }
+        assertThat(subscriber.events.poll(100, TimeUnit.MILLISECONDS), is(nullValue()));
+
+        subscriber.subscription.request(Long.MAX_VALUE);
+        for (int i = 5; i < 10; i++) {
+            assertThat(subscriber.events.poll(5, TimeUnit.SECONDS), is(i));
+        }
+        assertThat(subscriber.events.poll(5, TimeUnit.SECONDS), is(COMPLETE));
+        assertThat(subscriptions.get(), is(3));
+    }
+
+    @Test
+    public void testRetryCount() throws Exception {
+        Retrier retrier = create(withRetryCount(3));
+
+        // Every subscription fails before delivering any element.
+        AtomicInteger subscriptions = new AtomicInteger();
+        Flow.Publisher<Integer> publisher = retrier.retryFlow(null, (Integer position) -> {
+            subscriptions.incrementAndGet();
+            return new RangePublisher(0, 10, 0);
+        }, item -> item);
+
+        TestSubscriber subscriber = new TestSubscriber();
+        publisher.subscribe(subscriber);
+        subscriber.subscription.request(10);
+
+        assertThat(subscriber.events.poll(5, TimeUnit.SECONDS), is(instanceOf(IllegalStateException.class)));
+        assertThat(subscriptions.get(), is(3));
+    }
+
+    @Test
+    public void testFailureAfterProgress() throws Exception {
+        List<String> events = new CopyOnWriteArrayList<>();
+        RetryListener listener = new RetryListener() {
+            @Override
+            public void onAttemptStarted(int attempt) {
+                events.add("started " + attempt);
+            }
+
+            @Override
+            public void onFailure(int attempt, long elapsedTimeInNanos, Class<? extends Exception> exceptionClass) {
+                events.add("failed " + attempt);
+            }
+        };
+        Bulkhead bulkhead = new Bulkhead(1, 0, Duration.ZERO);
+        Retrier retrier = create(withRetryCount(3), withBulkhead(bulkhead), withListener(listener));
+
+        // Failure after progress starts the new retry with the failed attempt, without starting another one for it.
+        List<Integer> failures = new ArrayList<>(Arrays.asList(3));
+        Flow.Publisher<Integer> publisher = retrier.retryFlow(null, (Integer position) ->
+                new RangePublisher(position == null ? 0 : position + 1, 5, failures.isEmpty() ? -1 : failures.remove(0)), item -> item);
+        TestSubscriber subscriber = new TestSubscriber();
+        publisher.subscribe(subscriber);
+        subscriber.subscription.request(Long.MAX_VALUE);
+        for (int i = 0; i < 5; i++) {
+            assertThat(subscriber.events.poll(5, TimeUnit.SECONDS), is(i));
+        }
+        assertThat(subscriber.events.poll(5, TimeUnit.SECONDS), is(COMPLETE));
+        assertThat(events, is(Arrays.asList("started 1", "started 2")));
+        assertThat(bulkhead.getAvailablePermits(), is(1));
+
+        // Failure after progress which cannot be handled is raised as is, without any attempt.
+        events.clear();
+        publisher = retrier.retryFlow(on(IllegalArgumentException.class), null, (Integer position) -> new RangePublisher(0, 5, 3), item -> item);
+        subscriber = new TestSubscriber();
+        publisher.subscribe(subscriber);
+        subscriber.subscription.request(Long.MAX_VALUE);
+        for (int i = 0; i < 3; i++) {
+            assertThat(subscriber.events.poll(5, TimeUnit.SECONDS), is(i));
+        }
+        assertThat(subscriber.events.poll(5, TimeUnit.SECONDS), is(instanceOf(IllegalStateException.class)));
+        assertThat(events, is(Arrays.asList("started 1")));
+        assertThat(bulkhead.getAvailablePermits(), is(1));
+    }
+
+    /**
+     * {@link RangePublisher} publishes the integers from start (inclusive) to end (exclusive), failing at the provided element.
+     */
+    private static class RangePublisher implements Flow.Publisher<Integer> {
+
+        private final int start;
+        private final int end;
+        private final int failAt;
+
+        RangePublisher(int start, int end, int failAt) {
+            this.start = start;
+            this.end = end;
+            this.failAt = failAt;
+        }
+
+        @Override
+        public void subscribe(Flow.Subscriber<? super Integer> subscriber) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                private int next = start;
+                private boolean done;
+
+                @Override
+                public synchronized void request(long n) {
+                    for (; n > 0 && !done && next < end; n--) {
+                        if (next == failAt) {
+                            done = true;
+                            subscriber.onError(new IllegalStateException("Failed at " + next));
+                            return;
+                        }
+                        subscriber.onNext(next++);
+                    }
+                    if (!done && next == end) {
+                        done = true;
+                        subscriber.onComplete();
+                    }
+                }
+
+                @Override
+                public synchronized void cancel() {
+                    done = true;
+                }
+            });
+        }
+    }
+
+    /**
+     * {@link TestSubscriber} queues the elements, the error or {@link #COMPLETE} it receives.
+     */
+    private static class TestSubscriber implements Flow.Subscriber<Integer> {
+
+        private final BlockingQueue<Object> events = new LinkedBlockingQueue<>();
+        private volatile Flow.Subscription subscription;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(Integer item) {
+            events.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            events.add(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            events.add(COMPLETE);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2017 The Retrier AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.retrier.test;
+
+
+import io.github.ravichaturvedi.retrier.Retrier;
+import io.github.ravichaturvedi.retrier.bulkhead.Bulkhead;
+import io.github.ravichaturvedi.retrier.bulkhead.BulkheadFullException;
+import io.github.ravichaturvedi.retrier.metrics.LatencyHistogram;
+import io.github.ravichaturvedi.retrier.metrics.RetryMetrics;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.github.ravichaturvedi.retrier.Retriers.*;
+import static io.github.ravichaturvedi.retrier.Retry.on;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class TestRetryMetrics {
+
+    @Test
+    public void testMetrics() throws Exception {
+        RetryMetrics metrics = new RetryMetrics("testMetrics");
+        Retrier retrier = create(withRetryCount(2), withMetrics(metrics));
+
+        retrier.retry(() -> "Hello");
+
+        AtomicInteger count = new AtomicInteger(0);
+        retrier.retry(() -> {
+            if (count.incrementAndGet() == 1) {
+                throw new IllegalStateException("123");
+            }
+            return "Hello";
+        });
+
+        try {
+            retrier.retry(() -> {
+                throw new IllegalStateException("123");
+            });
+            fail("Should have got IllegalStateException.");
+        } catch (IllegalStateException e) {
+            assertThat(e.getMessage(), is("123"));
+        }
+
+        assertThat(metrics.getCalls(), is(3L));
+        assertThat(metrics.getFirstTrySuccesses(), is(1L));
+        assertThat(metrics.getRetriedSuccesses(), is(1L));
+        assertThat(metrics.getExhaustedFailures(), is(1L));
+        assertThat(metrics.getRetryLimits(), is(1L));
+        assertThat(metrics.getAttemptLatency().count(), is(5L));
+        assertThat(metrics.getRetriedLatency().count(), is(2L));
+
+        Object calls = ManagementFactory.getPlatformMBeanServer().getAttribute(metrics.getObjectName(), "Calls");
+        assertThat(calls, is(3L));
+        metrics.unregister();
+    }
+
+    @Test
+    public void testMetricsRejectionsAndFailures() throws Exception {
+        RetryMetrics metrics = new RetryMetrics("testMetricsRejectionsAndFailures");
+        Bulkhead bulkhead = new Bulkhead(1, 0, Duration.ZERO);
+        Retrier retrier = create(withRetryCount(2), withBulkhead(bulkhead), withMetrics(metrics));
+
+        try {
+            retrier.retry(on(IllegalStateException.class), () -> {
+                throw new IllegalArgumentException("123");
+            });
+            fail("Should have got IllegalArgumentException.");
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is("123"));
+        }
+
+        // Call finding the bulkhead full is rejected before its attempt ran.
+        assertThat(bulkhead.tryAcquireNow(), is(true));
+        try {
+            retrier.retry(() -> "Hello");
+            fail("Should have got BulkheadFullException.");
+        } catch (BulkheadFullException e) {
+        } finally {
+            bulkhead.release();
+        }
+
+        // Every call ends in exactly one of the outcomes.
+        assertThat(metrics.getCalls(), is(2L));
+        assertThat(metrics.getFailures(), is(1L));
+        assertThat(metrics.getRejections(), is(1L));
+        assertThat(metrics.getExhaustedFailures(), is(0L));
+        assertThat(metrics.getFirstTrySuccesses() + metrics.getRetriedSuccesses(), is(0L));
+        assertThat(metrics.getNonRetriedLatency().count(), is(1L));
+        metrics.unregister();
+    }
+
+    @Test
+    public void testMetricsDuplicateName() {
+        RetryMetrics metrics = new RetryMetrics("testMetricsDuplicateName");
+        create(withMetrics(metrics));
+
+        // Same metrics can be shared by retriers, but other metrics cannot take over the name.
+        create(withMetrics(metrics));
+        RetryMetrics duplicate = new RetryMetrics("testMetricsDuplicateName");
+        try {
+            create(withMetrics(duplicate));
+            fail("Should have got IllegalStateException.");
+        } catch (IllegalStateException e) {
+            assertThat(ManagementFactory.getPlatformMBeanServer().isRegistered(metrics.getObjectName()), is(true));
+        }
+
+        // Duplicate doesn't unregister the metrics it couldn't replace.
+        duplicate.unregister();
+        assertThat(ManagementFactory.getPlatformMBeanServer().isRegistered(metrics.getObjectName()), is(true));
+
+        metrics.unregister();
+        assertThat(ManagementFactory.getPlatformMBeanServer().isRegistered(metrics.getObjectName()), is(false));
+    }
+
+    @Test
+    public void testHistogramPercentile() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000);
+        }
+
+        assertThat(histogram.count(), is(1000L));
+        assertThat(histogram.percentile(50), is(both(greaterThanOrEqualTo(500_000L)).and(lessThan(500_000L * 9 / 8))));
+        assertThat(histogram.percentile(99), is(both(greaterThanOrEqualTo(990_000L)).and(lessThan(990_000L * 9 / 8))));
+        assertThat(histogram.percentile(100), is(greaterThanOrEqualTo(1_000_000L)));
+    }
+}